@@ -0,0 +1,36 @@
+package com.securevault.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCryptBenchmark - Cost of one login password / master PIN check at several strengths
+ * The application uses the encoder default (10)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BCryptBenchmark {
+    
+    @Param({"8", "10", "12"})
+    private int strength;
+    
+    private BCryptPasswordEncoder passwordEncoder;
+    private String hash;
+    
+    @Setup
+    public void setUp() {
+        passwordEncoder = new BCryptPasswordEncoder(strength);
+        hash = passwordEncoder.encode("Password1!");
+    }
+    
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches("Password1!", hash);
+    }
+}
@@ -0,0 +1,154 @@
+package com.securevault.benchmark;
+
+import com.securevault.service.BreachedPasswordChecker;
+import com.securevault.service.BreachedPasswordIndex;
+import com.securevault.service.BreachedPasswordIndexBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BreachedPasswordBenchmark - Lookups in the memory-mapped breached-password index
+ * Builds an index of synthetic sorted SHA-1 digests with BreachedPasswordIndexBuilder (kept in
+ * target/benchmark-breach between runs); 120M digests make a 2.4 GB file mapped as two segments
+ * isBreached includes the SHA-1 of the password
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BreachedPasswordBenchmark {
+    
+    private static final int SAMPLE_EVERY = 1024;
+    private static final int QUERIES = 1 << 16;
+    
+    @Param({"1000000", "120000000"})
+    private long digests;
+    
+    private BreachedPasswordIndex index;
+    private BreachedPasswordChecker checker;
+    private byte[][] hits;
+    private byte[][] misses;
+    private int next;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Path file = Path.of("target", "benchmark-breach", digests + ".bin");
+        SortedDigestReader corpus = new SortedDigestReader(digests);
+        if (!Files.exists(file)) {
+            BreachedPasswordIndexBuilder.build(new BufferedReader(corpus, 1 << 20), file, 1);
+        } else {
+            corpus.skipAll();
+        }
+        index = BreachedPasswordIndex.open(file);
+        checker = new BreachedPasswordChecker(file.toString(), new SimpleMeterRegistry());
+        
+        Random random = new Random(7);
+        hits = new byte[QUERIES][];
+        misses = new byte[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            hits[i] = corpus.samples.get(random.nextInt(corpus.samples.size()));
+            misses[i] = new byte[20];
+            random.nextBytes(misses[i]);
+        }
+        if (!index.contains(hits[0], 0)) {
+            throw new IllegalStateException("Index does not match the generated corpus; delete " + file);
+        }
+    }
+    
+    @Benchmark
+    public boolean containsHit() {
+        return index.contains(hits[next++ & (QUERIES - 1)], 0);
+    }
+    
+    @Benchmark
+    public boolean containsMiss() {
+        return index.contains(misses[next++ & (QUERIES - 1)], 0);
+    }
+    
+    @Benchmark
+    public boolean isBreached() {
+        return checker.isBreached("Qv7#pL2!zR9@wX4m");
+    }
+    
+    /**
+     * Generates a "HASH" line per digest in ascending order, spreading the digests evenly over the hash space;
+     * every SAMPLE_EVERY-th digest is kept as a lookup that must hit
+     */
+    private static final class SortedDigestReader extends Reader {
+        
+        private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+        
+        private final long count;
+        private final long step;
+        private final Random random = new Random(5);
+        private final char[] line = new char[41];
+        private final List<byte[]> samples = new ArrayList<>();
+        private long produced;
+        private int linePosition = line.length;
+        
+        SortedDigestReader(long count) {
+            this.count = count;
+            this.step = Long.divideUnsigned(-1L, count);
+            line[40] = '\n';
+        }
+        
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            int read = 0;
+            while (read < length) {
+                if (linePosition == line.length) {
+                    if (produced == count) {
+                        break;
+                    }
+                    nextLine();
+                }
+                int chunk = Math.min(length - read, line.length - linePosition);
+                System.arraycopy(line, linePosition, buffer, offset + read, chunk);
+                linePosition += chunk;
+                read += chunk;
+            }
+            return read == 0 && length > 0 ? -1 : read;
+        }
+        
+        // Regenerates the samples of an index built by an earlier run
+        void skipAll() {
+            while (produced < count) {
+                nextLine();
+            }
+        }
+        
+        private void nextLine() {
+            long high = produced * step + (random.nextLong() & 0xFFFF);
+            long middle = random.nextLong();
+            int low = random.nextInt();
+            byte[] digest = new byte[20];
+            for (int i = 0; i < 20; i++) {
+                long value = i < 8 ? high >>> (56 - 8 * i) : i < 16 ? middle >>> (120 - 8 * i) : low >>> (152 - 8 * i);
+                digest[i] = (byte) value;
+                line[2 * i] = HEX[(int) (value >>> 4) & 15];
+                line[2 * i + 1] = HEX[(int) value & 15];
+            }
+            if (produced % SAMPLE_EVERY == 0) {
+                samples.add(digest);
+            }
+            produced++;
+            linePosition = 0;
+        }
+        
+        @Override
+        public void close() {
+        }
+    }
+}
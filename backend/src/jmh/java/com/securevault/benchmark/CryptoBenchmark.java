@@ -0,0 +1,69 @@
+package com.securevault.benchmark;
+
+import com.securevault.service.CryptoService;
+import com.securevault.service.KdfExecutor;
+import com.securevault.service.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CryptoBenchmark - Data-key encryption and decryption of a single entry
+ * String APIs as used by the vault endpoints (including their stage timers),
+ * offset APIs into preallocated buffers
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CryptoBenchmark {
+    
+    @Param({"16", "256"})
+    private int length;
+    
+    private CryptoService cryptoService;
+    private SecretKey dataKey;
+    private String plaintext;
+    private byte[] plaintextBytes;
+    private byte[] stored;
+    private byte[] out;
+    private byte[] decrypted;
+    
+    @Setup
+    public void setUp() throws Exception {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cryptoService = new CryptoService(new KdfExecutor(0, 64, 1, meterRegistry), new StageMetrics(meterRegistry));
+        dataKey = cryptoService.generateDataKey();
+        plaintext = "p".repeat(length);
+        plaintextBytes = plaintext.getBytes(StandardCharsets.UTF_8);
+        stored = cryptoService.encrypt(plaintext, dataKey);
+        out = new byte[cryptoService.encryptedLength(length)];
+        decrypted = new byte[stored.length];
+    }
+    
+    @Benchmark
+    public byte[] encrypt() throws Exception {
+        return cryptoService.encrypt(plaintext, dataKey);
+    }
+    
+    @Benchmark
+    public String decrypt() throws Exception {
+        return cryptoService.decrypt(stored, dataKey);
+    }
+    
+    @Benchmark
+    public int encryptInto() throws Exception {
+        return cryptoService.encrypt(plaintextBytes, 0, plaintextBytes.length, dataKey, out, 0);
+    }
+    
+    @Benchmark
+    public int decryptInto() throws Exception {
+        return cryptoService.decrypt(stored, 0, stored.length, dataKey, decrypted, 0);
+    }
+}
@@ -0,0 +1,83 @@
+package com.securevault.benchmark;
+
+import com.securevault.service.JwtKeyRing;
+import com.securevault.service.JwtService;
+import com.securevault.service.VerifiedTokenCache;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtBenchmark - Token issue and per-request validation
+ * validateToken is measured with the verified-token cache (repeat requests) and without it (first request);
+ * the hmac* benchmarks sign and verify the same claims with the former shared-secret HS512 path for comparison
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtBenchmark {
+    
+    private static final String SECRET = "ThisIsADefaultSecretKeyForDevelopmentOnlyPleaseChangeInProduction";
+    
+    private JwtService cachedJwtService;
+    private JwtService uncachedJwtService;
+    private String token;
+    
+    private SecretKey hmacKey;
+    private JwtParser hmacParser;
+    private String hmacToken;
+    
+    @Setup
+    public void setUp() throws IOException {
+        JwtKeyRing keyRing = new JwtKeyRing("", "");
+        cachedJwtService = new JwtService(keyRing, 900, new VerifiedTokenCache(10000));
+        uncachedJwtService = new JwtService(keyRing, 900, new VerifiedTokenCache(0));
+        token = cachedJwtService.generateToken("benchmark", 1L, "benchmark-session");
+        
+        hmacKey = Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+        hmacParser = Jwts.parserBuilder().setSigningKey(hmacKey).build();
+        hmacToken = hmacSign();
+    }
+    
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtService.generateToken("benchmark", 1L, "benchmark-session");
+    }
+    
+    @Benchmark
+    public boolean validateTokenCached() {
+        return cachedJwtService.validateToken(token);
+    }
+    
+    @Benchmark
+    public boolean validateTokenUncached() {
+        return uncachedJwtService.validateToken(token);
+    }
+    
+    @Benchmark
+    public String hmacSign() {
+        return Jwts.builder()
+                .claim("userId", 1L)
+                .claim("sid", "benchmark-session")
+                .setSubject("benchmark")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 900_000))
+                .signWith(hmacKey)
+                .compact();
+    }
+    
+    @Benchmark
+    public Object hmacVerify() {
+        return hmacParser.parseClaimsJws(hmacToken).getBody();
+    }
+}
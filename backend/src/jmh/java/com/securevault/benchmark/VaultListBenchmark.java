@@ -0,0 +1,85 @@
+package com.securevault.benchmark;
+
+import com.securevault.SecureVaultApplication;
+import com.securevault.constants.ValidationConstants;
+import com.securevault.dto.PasswordPageResponse;
+import com.securevault.service.VaultService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VaultListBenchmark - Vault listing (GET /vault/passwords) against H2 at several vault sizes
+ * Boots the application (on a random port) and bulk-loads one user's entries straight into H2
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VaultListBenchmark {
+    
+    private static final Long USER_ID = 1L;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    
+    @Param({"100", "10000", "100000"})
+    private int entries;
+    
+    private ConfigurableApplicationContext context;
+    private VaultService vaultService;
+    
+    @Setup
+    public void setUp() {
+        context = SpringApplication.run(SecureVaultApplication.class,
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark",
+                "--vault.migration.interval-ms=86400000");
+        vaultService = context.getBean(VaultService.class);
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        byte[] ciphertext = new byte[46];
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        for (long id = 1; id <= entries; id++) {
+            batch.add(new Object[] {id, USER_ID, "app" + id, "user" + id, ciphertext, id, now});
+            if (batch.size() == INSERT_BATCH_SIZE || id == entries) {
+                jdbcTemplate.batchUpdate("insert into password_entries "
+                        + "(id, user_id, app_name, app_username, ciphertext, change_seq, created_at) "
+                        + "values (?, ?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public PasswordPageResponse firstPage() {
+        return vaultService.getPasswordPage(USER_ID, null, ValidationConstants.LIST_PAGE_DEFAULT_SIZE);
+    }
+    
+    @Benchmark
+    public int allPages() {
+        int count = 0;
+        String cursor = null;
+        do {
+            PasswordPageResponse page = vaultService.getPasswordPage(USER_ID, cursor, ValidationConstants.LIST_PAGE_MAX_SIZE);
+            count += page.getEntries().size();
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return count;
+    }
+}
@@ -0,0 +1,116 @@
+package com.securevault.benchmark;
+
+import com.securevault.SecureVaultApplication;
+import com.securevault.constants.ValidationConstants;
+import com.securevault.dto.AddPasswordRequest;
+import com.securevault.dto.DecryptedPasswordResponse;
+import com.securevault.dto.PasswordPageResponse;
+import com.securevault.dto.RegisterRequest;
+import com.securevault.repository.UserRepository;
+import com.securevault.service.AuthService;
+import com.securevault.service.VaultService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VaultScaleBenchmark - One user's list and reveal latency as the whole table grows
+ * Boots the application with the file-backed persistent profile (schema from Flyway), creates one user
+ * with a fixed-size vault and fills the rest of password_entries with other users' rows;
+ * with per-user indexes the results should stay flat from 1k to 10M total rows
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VaultScaleBenchmark {
+    
+    private static final int USER_ENTRIES = 100;
+    private static final int ENTRIES_PER_OTHER_USER = 100;
+    private static final long FILL_CHUNK = 500_000;
+    // Above anything the id sequence hands out during setup
+    private static final long FILL_FIRST_ID = 1_000_000_000L;
+    private static final String MASTER_PIN = "1234";
+    
+    @Param({"1000", "100000", "1000000", "10000000"})
+    private long totalRows;
+    
+    private ConfigurableApplicationContext context;
+    private VaultService vaultService;
+    private Long userId;
+    private String unlockToken;
+    private long[] entryIds;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Path dataDir = Path.of("target", "benchmark-db", "scale-" + totalRows);
+        FileSystemUtils.deleteRecursively(dataDir);
+        context = SpringApplication.run(SecureVaultApplication.class,
+                "--spring.profiles.active=persistent",
+                "--vault.data-dir=" + dataDir.toAbsolutePath(),
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--vault.migration.interval-ms=86400000");
+        vaultService = context.getBean(VaultService.class);
+        
+        RegisterRequest register = new RegisterRequest();
+        register.setUsername("scale");
+        register.setLoginPassword("Benchmark1!");
+        register.setMasterPin(MASTER_PIN);
+        context.getBean(AuthService.class).register(register);
+        userId = context.getBean(UserRepository.class).findByUsername("scale").orElseThrow().getId();
+        unlockToken = vaultService.unlock(userId, MASTER_PIN).getUnlockToken();
+        
+        entryIds = new long[USER_ENTRIES];
+        for (int i = 0; i < USER_ENTRIES; i++) {
+            AddPasswordRequest add = new AddPasswordRequest();
+            add.setAppName("app" + i);
+            add.setAppUsername("user" + i);
+            add.setPassword("secret" + i);
+            add.setUnlockToken(unlockToken);
+            entryIds[i] = vaultService.addPassword(userId, add).getId();
+        }
+        
+        // Other users' rows, generated inside H2 in chunks so each transaction stays bounded
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        byte[] ciphertext = new byte[46];
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        long fillRows = totalRows - USER_ENTRIES;
+        for (long from = 0; from < fillRows; from += FILL_CHUNK) {
+            long to = Math.min(fillRows, from + FILL_CHUNK) - 1;
+            jdbcTemplate.update("insert into password_entries "
+                    + "(id, user_id, app_name, app_username, ciphertext, change_seq, created_at) "
+                    + "select ? + x, ? + x / ?, 'app' || x, 'user' || x, ?, x, ? from system_range(?, ?)",
+                    FILL_FIRST_ID, userId + 1, ENTRIES_PER_OTHER_USER, ciphertext, now, from, to);
+        }
+        jdbcTemplate.execute("analyze");
+    }
+    
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+    
+    @Benchmark
+    public PasswordPageResponse listFirstPage() {
+        return vaultService.getPasswordPage(userId, null, ValidationConstants.LIST_PAGE_DEFAULT_SIZE);
+    }
+    
+    @Benchmark
+    public DecryptedPasswordResponse show() {
+        long entryId = entryIds[ThreadLocalRandom.current().nextInt(entryIds.length)];
+        return vaultService.showPassword(userId, entryId, null, unlockToken);
+    }
+}
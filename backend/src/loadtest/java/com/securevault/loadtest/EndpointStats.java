@@ -0,0 +1,52 @@
+package com.securevault.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * EndpointStats - Latency histogram and status counts of one endpoint
+ * Latencies are recorded in microseconds, measured from the scheduled send time
+ */
+class EndpointStats {
+    
+    private final Recorder recorder = new Recorder(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder skipped = new LongAdder();
+    
+    void record(long latencyNanos, int status) {
+        recorder.recordValue(Math.max(1, latencyNanos / 1000));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+    
+    void skip() {
+        skipped.increment();
+    }
+    
+    void reset() {
+        recorder.reset();
+        statuses.clear();
+        skipped.reset();
+    }
+    
+    Histogram histogram() {
+        return recorder.getIntervalHistogram();
+    }
+    
+    /**
+     * Status code counts; -1 counts requests that failed without a response (timeout, connection error)
+     */
+    Map<Integer, Long> statuses() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        statuses.forEach((status, count) -> counts.put(status, count.sum()));
+        return counts;
+    }
+    
+    long skipped() {
+        return skipped.sum();
+    }
+}
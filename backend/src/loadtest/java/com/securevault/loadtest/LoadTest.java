@@ -0,0 +1,410 @@
+package com.securevault.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securevault.SecureVaultApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadTest - Open-model HTTP load generator for the auth and vault endpoints
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. Boots the application on a random port with a private in-memory H2 database
+ * 2. Seeds N users with M entries each (register + CSV import)
+ * 3. Sends requests at a fixed arrival rate, picking endpoints from a weighted mix;
+ *    requests are fired asynchronously, so a slow response never delays the next send
+ * 4. Latency is measured from each request's scheduled send time, not the actual one,
+ *    so queueing behind a slow server or a late generator is counted (coordinated-omission correct)
+ * 5. Prints throughput and p50/p95/p99/p99.9/max per endpoint; full HdrHistogram percentile
+ *    distributions are written to the report directory
+ * 6. Each seeded user sends from its own client address (X-Forwarded-For); an optional attack stream
+ *    sends failed logins against separate victim accounts from a rotating set of addresses at its own
+ *    fixed rate, reported as "attack" and left out of the "all" row
+ * 
+ * Run: mvn -Ploadtest test-compile exec:exec@loadtest -Dloadtest.args="--rate=50 --duration=60"
+ */
+public class LoadTest {
+    
+    static final List<String> ENDPOINTS = List.of("register", "login", "list", "add", "show", "delete");
+    
+    private static final String LOGIN_PASSWORD = "LoadTest1!";
+    private static final String MASTER_PIN = "1234";
+    private static final String ATTACK = "attack";
+    
+    private final LoadTestOptions options;
+    private final String baseUrl;
+    private final HttpClient client;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    private final List<SeedUser> users = new ArrayList<>();
+    private final List<SeedUser> victims = new ArrayList<>();
+    private final AtomicInteger registered = new AtomicInteger();
+    private final AtomicLong inFlight = new AtomicLong();
+    
+    private volatile boolean recording;
+    
+    LoadTest(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ENDPOINTS.forEach(endpoint -> stats.put(endpoint, new EndpointStats()));
+        if (options.attackRate > 0) {
+            stats.put(ATTACK, new EndpointStats());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        
+        List<String> applicationArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--management.server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=WARN",
+                // Pool threads outlive the embedded Tomcat on shutdown; not a leak here
+                "--logging.level.org.apache.catalina.loader.WebappClassLoaderBase=ERROR",
+                // Trust X-Forwarded-For from the local generator, so every simulated client has its own address
+                "--server.forward-headers-strategy=native",
+                // Unlock and access tokens must outlive the run
+                "--vault.unlock.ttl-seconds=" + (options.warmup.plus(options.duration).toSeconds() + 600),
+                "--jwt.access-ttl-seconds=" + (options.warmup.plus(options.duration).toSeconds() + 600)));
+        applicationArgs.addAll(options.applicationArgs);
+        
+        ConfigurableApplicationContext context = SpringApplication.run(
+                SecureVaultApplication.class, applicationArgs.toArray(String[]::new));
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            new LoadTest(options, "http://localhost:" + port).run();
+        } finally {
+            context.close();
+        }
+    }
+    
+    void run() throws Exception {
+        long seedStart = System.nanoTime();
+        for (int i = 0; i < options.users; i++) {
+            users.add(seed("lt-seed-" + i, address(1, i), options.entries));
+        }
+        System.out.printf("Seeded %d users x %d entries in %.1f s%n",
+                options.users, options.entries, (System.nanoTime() - seedStart) / 1e9);
+        if (options.attackRate > 0) {
+            for (int i = 0; i < options.attackVictims; i++) {
+                victims.add(seed("lt-victim-" + i, address(2, i), 0));
+            }
+        }
+        
+        String[] schedule = schedule();
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long start = System.nanoTime();
+        long measureStart = start + options.warmup.toNanos();
+        long end = measureStart + options.duration.toNanos();
+        
+        System.out.printf("Sending %d req/s for %d s warmup + %d s measured%n",
+                options.rate, options.warmup.toSeconds(), options.duration.toSeconds());
+        Thread attacker = null;
+        if (options.attackRate > 0) {
+            System.out.printf("Attacking with %d failed logins/s from %d addresses against %d accounts%n",
+                    options.attackRate, options.attackIps, options.attackVictims);
+            attacker = new Thread(() -> attack(start, end), "attacker");
+            attacker.start();
+        }
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                break;
+            }
+            if (!recording && intended >= measureStart) {
+                stats.values().forEach(EndpointStats::reset);
+                recording = true;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(schedule[(int) (i % schedule.length)], intended);
+        }
+        if (attacker != null) {
+            attacker.join();
+        }
+        
+        // Let in-flight requests finish; they are still timed from their scheduled start
+        long drainDeadline = System.nanoTime() + options.timeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        recording = false;
+        
+        report();
+    }
+    
+    /**
+     * Weighted mix expanded to a shuffled schedule of 1000 slots, so the realized mix
+     * matches the requested one exactly over every 1000 requests
+     */
+    private String[] schedule() {
+        int total = options.mix.values().stream().mapToInt(Integer::intValue).sum();
+        List<String> slots = new ArrayList<>();
+        options.mix.forEach((endpoint, weight) -> {
+            long count = Math.round(1000.0 * weight / total);
+            for (long i = 0; i < count; i++) {
+                slots.add(endpoint);
+            }
+        });
+        Collections.shuffle(slots, new Random(42));
+        return slots.toArray(String[]::new);
+    }
+    
+    /**
+     * Failed logins at the attack rate, on the same clock as the mix; victims and addresses rotate
+     */
+    private void attack(long start, long end) {
+        long interval = TimeUnit.SECONDS.toNanos(1) / options.attackRate;
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            SeedUser victim = victims.get((int) (i % victims.size()));
+            HttpRequest request = post("/auth/login", address(3, (int) (i % options.attackIps)), null,
+                    Map.of("username", victim.username, "loginPassword", "guess-" + i));
+            sendAsync(ATTACK, request, intended, null);
+        }
+    }
+    
+    private void send(String endpoint, long intended) {
+        SeedUser user = users.get(ThreadLocalRandom.current().nextInt(users.size()));
+        HttpRequest request;
+        switch (endpoint) {
+            case "register" -> request = post("/auth/register", user.address, null,
+                    Map.of("username", "lt-" + registered.incrementAndGet(),
+                            "loginPassword", LOGIN_PASSWORD, "masterPin", MASTER_PIN));
+            case "login" -> request = post("/auth/login", user.address, null,
+                    Map.of("username", user.username, "loginPassword", LOGIN_PASSWORD));
+            case "list" -> request = authorized(user, "/vault/passwords?limit=100").GET().build();
+            case "add" -> request = post("/vault/add", user, withSecret(user, Map.of(
+                    "appName", "app-" + ThreadLocalRandom.current().nextInt(1_000_000),
+                    "appUsername", "user@example.com",
+                    "password", "S3cret-" + ThreadLocalRandom.current().nextLong())));
+            case "show" -> {
+                if (user.entryIds.isEmpty()) {
+                    stats.get(endpoint).skip();
+                    return;
+                }
+                Long id = user.entryIds.get(ThreadLocalRandom.current().nextInt(user.entryIds.size()));
+                request = post("/vault/show/" + id, user, withSecret(user, Map.of()));
+            }
+            case "delete" -> {
+                // Only entries added during the run are deleted, so the seeded set stays stable
+                Long id = user.deletable.poll();
+                if (id == null) {
+                    stats.get(endpoint).skip();
+                    return;
+                }
+                request = authorized(user, "/vault/delete/" + id).DELETE().build();
+            }
+            default -> throw new IllegalStateException(endpoint);
+        }
+        sendAsync(endpoint, request, intended, user);
+    }
+    
+    private void sendAsync(String endpoint, HttpRequest request, long intended, SeedUser user) {
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - intended;
+                    int status = response != null ? response.statusCode() : -1;
+                    if (recording) {
+                        stats.get(endpoint).record(latency, status);
+                    }
+                    if ("add".equals(endpoint) && status == 200) {
+                        user.deletable.add(readTree(response.body()).get("id").asLong());
+                    }
+                    inFlight.decrementAndGet();
+                });
+    }
+    
+    private SeedUser seed(String username, String address, int entries) throws IOException, InterruptedException {
+        SeedUser user = new SeedUser(username, address);
+        JsonNode auth = readTree(sendChecked(post("/auth/register", address, null,
+                Map.of("username", username, "loginPassword", LOGIN_PASSWORD, "masterPin", MASTER_PIN))));
+        user.token = auth.get("token").asText();
+        
+        if (entries > 0) {
+            StringBuilder csv = new StringBuilder("name,url,username,password,note\n");
+            for (int i = 0; i < entries; i++) {
+                csv.append("app-").append(i).append(",https://app-").append(i).append(".example.com,")
+                        .append(username).append("@example.com,S3cret-").append(i).append(",\n");
+            }
+            sendChecked(authorized(user, "/vault/import")
+                    .header("Content-Type", "text/csv")
+                    .header("X-Master-Pin", MASTER_PIN)
+                    .POST(HttpRequest.BodyPublishers.ofString(csv.toString()))
+                    .build());
+        }
+        
+        String cursor = null;
+        do {
+            String path = "/vault/passwords?limit=500" + (cursor != null ? "&cursor=" + cursor : "");
+            HttpResponse<String> page = client.send(authorized(user, path).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            for (JsonNode entry : readTree(page.body())) {
+                user.entryIds.add(entry.get("id").asLong());
+            }
+            cursor = page.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (cursor != null);
+        
+        if (options.unlockTokens) {
+            JsonNode unlock = readTree(sendChecked(post("/vault/unlock", user, Map.of("masterPin", MASTER_PIN))));
+            user.unlockToken = unlock.get("unlockToken").asText();
+        }
+        return user;
+    }
+    
+    private void report() throws IOException {
+        Path reportDir = Path.of(options.reportDir);
+        Files.createDirectories(reportDir);
+        double seconds = options.duration.toNanos() / 1e9;
+        
+        System.out.println();
+        System.out.printf("%-9s %8s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "skipped", "status");
+        Histogram total = null;
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            Histogram histogram = entry.getValue().histogram();
+            if (histogram.getTotalCount() == 0 && entry.getValue().skipped() == 0) {
+                continue;
+            }
+            print(entry.getKey(), histogram, seconds, entry.getValue().skipped(), entry.getValue().statuses().toString());
+            // The "all" row covers legitimate traffic only
+            if (!ATTACK.equals(entry.getKey())) {
+                if (total == null) {
+                    total = histogram.copy();
+                } else {
+                    total.add(histogram);
+                }
+            }
+            try (PrintStream out = new PrintStream(reportDir.resolve(entry.getKey() + ".hgrm").toFile())) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        if (total != null) {
+            print("all", total, seconds, 0, "");
+        }
+        System.out.println("Percentile distributions written to " + reportDir.toAbsolutePath());
+    }
+    
+    private static void print(String endpoint, Histogram histogram, double seconds, long skipped, String statuses) {
+        System.out.printf("%-9s %8d %8.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9d  %s%n",
+                endpoint,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(95) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0,
+                skipped,
+                statuses);
+    }
+    
+    private Map<String, Object> withSecret(SeedUser user, Map<String, Object> body) {
+        Map<String, Object> request = new LinkedHashMap<>(body);
+        if (user.unlockToken != null) {
+            request.put("unlockToken", user.unlockToken);
+        } else {
+            request.put("masterPin", MASTER_PIN);
+        }
+        return request;
+    }
+    
+    private HttpRequest post(String path, SeedUser user, Map<String, ?> body) {
+        return post(path, user.address, user, body);
+    }
+    
+    private HttpRequest post(String path, String address, SeedUser user, Map<String, ?> body) {
+        HttpRequest.Builder builder = user != null ? authorized(user, path) : request(path);
+        try {
+            return builder.header("Content-Type", "application/json")
+                    .header("X-Forwarded-For", address)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private HttpRequest.Builder authorized(SeedUser user, String path) {
+        return request(path)
+                .header("Authorization", "Bearer " + user.token)
+                .header("X-Forwarded-For", user.address);
+    }
+    
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(options.timeout);
+    }
+    
+    private String sendChecked(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+    
+    /**
+     * Private address of a simulated client: 10.group.high.low
+     */
+    private static String address(int group, int index) {
+        return "10." + group + "." + (index / 256 % 256) + "." + (index % 256);
+    }
+    
+    private JsonNode readTree(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (IOException e) {
+            throw new IllegalStateException("Unexpected response: " + body, e);
+        }
+    }
+    
+    private static class SeedUser {
+        final String username;
+        final List<Long> entryIds = new ArrayList<>();
+        final ConcurrentLinkedQueue<Long> deletable = new ConcurrentLinkedQueue<>();
+        final String address;
+        String token;
+        String unlockToken;
+        
+        SeedUser(String username, String address) {
+            this.username = username;
+            this.address = address;
+        }
+    }
+}
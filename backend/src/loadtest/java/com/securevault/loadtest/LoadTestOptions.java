@@ -0,0 +1,90 @@
+package com.securevault.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoadTestOptions - Command line options of the load generator
+ * 
+ * --users=10 --entries=100    seeded users and entries per user
+ * --rate=50                   requests per second (fixed arrival rate)
+ * --warmup=10 --duration=60   seconds; warmup requests are sent but not recorded
+ * --mix=register:2,login:8,list:40,add:15,show:30,delete:5
+ * --unlock-tokens=false       show/add with a vault unlock token instead of the master PIN
+ * --timeout=60                per-request timeout in seconds
+ * --report-dir=target/loadtest  HdrHistogram percentile distributions (.hgrm) per endpoint
+ * --attack-rate=0             failed logins per second against seeded victim accounts, alongside the mix
+ * --attack-ips=1              client addresses the attack rotates through (X-Forwarded-For)
+ * --attack-victims=20         victim accounts seeded for the attack
+ * 
+ * Any other option containing a dot (e.g. --vault.async.enabled=true) is passed to the application
+ */
+class LoadTestOptions {
+    
+    int users = 10;
+    int entries = 100;
+    int rate = 50;
+    Duration warmup = Duration.ofSeconds(10);
+    Duration duration = Duration.ofSeconds(60);
+    Duration timeout = Duration.ofSeconds(60);
+    Map<String, Integer> mix = parseMix("register:2,login:8,list:40,add:15,show:30,delete:5");
+    boolean unlockTokens = false;
+    String reportDir = "target/loadtest";
+    int attackRate = 0;
+    int attackIps = 1;
+    int attackVictims = 20;
+    List<String> applicationArgs = new ArrayList<>();
+    
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            switch (name) {
+                case "users" -> options.users = Integer.parseInt(value);
+                case "entries" -> options.entries = Integer.parseInt(value);
+                case "rate" -> options.rate = Integer.parseInt(value);
+                case "warmup" -> options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                case "duration" -> options.duration = Duration.ofSeconds(Long.parseLong(value));
+                case "timeout" -> options.timeout = Duration.ofSeconds(Long.parseLong(value));
+                case "mix" -> options.mix = parseMix(value);
+                case "unlock-tokens" -> options.unlockTokens = Boolean.parseBoolean(value);
+                case "report-dir" -> options.reportDir = value;
+                case "attack-rate" -> options.attackRate = Integer.parseInt(value);
+                case "attack-ips" -> options.attackIps = Integer.parseInt(value);
+                case "attack-victims" -> options.attackVictims = Integer.parseInt(value);
+                default -> {
+                    if (!name.contains(".")) {
+                        throw new IllegalArgumentException("Unknown option --" + name);
+                    }
+                    options.applicationArgs.add(arg);
+                }
+            }
+        }
+        if (options.users < 1 || options.rate < 1) {
+            throw new IllegalArgumentException("--users and --rate must be positive");
+        }
+        if (options.attackRate > 0 && (options.attackIps < 1 || options.attackVictims < 1)) {
+            throw new IllegalArgumentException("--attack-ips and --attack-victims must be positive");
+        }
+        return options;
+    }
+    
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] weight = part.split(":");
+            if (!LoadTest.ENDPOINTS.contains(weight[0])) {
+                throw new IllegalArgumentException("Unknown endpoint in --mix: " + weight[0]);
+            }
+            mix.put(weight[0], Integer.parseInt(weight[1]));
+        }
+        return mix;
+    }
+}
@@ -0,0 +1,46 @@
+package com.securevault.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCryptCalibration - Picks the BCrypt strength (log2 rounds) that fits a target hash time on this machine
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. Times a few hashes at the minimum strength at startup and keeps the fastest (least disturbed) sample
+ * 2. Each extra strength step doubles the work, so the time at higher strengths is extrapolated
+ *    instead of measured; calibration costs a few hashes at the floor, not one at the ceiling
+ * 3. The strongest setting whose estimate stays within the target wins, clamped to [min, max];
+ *    the minimum is a security floor and is used even if it is slower than the target
+ */
+final class BCryptCalibration {
+    
+    private static final Logger log = LoggerFactory.getLogger(BCryptCalibration.class);
+    
+    private static final int SAMPLES = 5;
+    
+    private BCryptCalibration() {
+    }
+    
+    static int strengthFor(long targetMillis, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        // First hash pays for class loading and JIT warm-up
+        encoder.encode("calibration");
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode("calibration");
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        
+        int strength = minStrength;
+        long estimate = fastest;
+        while (strength < maxStrength && estimate * 2 <= targetMillis * 1_000_000L) {
+            strength++;
+            estimate *= 2;
+        }
+        log.info("BCrypt strength {} (~{} ms per hash, target {} ms)", strength, estimate / 1_000_000, targetMillis);
+        return strength;
+    }
+}
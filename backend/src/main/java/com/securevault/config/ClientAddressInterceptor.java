@@ -0,0 +1,31 @@
+package com.securevault.config;
+
+import com.securevault.service.ClientAddress;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * ClientAddressInterceptor - Makes the request's remote address available to the attempt throttle
+ * Set before the handler runs and cleared when the request (or its synchronous part) ends
+ */
+@Component
+public class ClientAddressInterceptor implements AsyncHandlerInterceptor {
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ClientAddress.set(request.getRemoteAddr());
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        ClientAddress.set(null);
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        ClientAddress.set(null);
+    }
+}
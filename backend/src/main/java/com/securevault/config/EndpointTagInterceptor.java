@@ -0,0 +1,33 @@
+package com.securevault.config;
+
+import com.securevault.service.StageMetrics;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * EndpointTagInterceptor - Makes the matched route pattern the endpoint tag of stage timers
+ * Set before the handler runs and cleared when the request (or its synchronous part) ends
+ */
+@Component
+public class EndpointTagInterceptor implements AsyncHandlerInterceptor {
+    
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        StageMetrics.setCurrentEndpoint(pattern != null ? pattern.toString() : null);
+        return true;
+    }
+    
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        StageMetrics.setCurrentEndpoint(null);
+    }
+    
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        StageMetrics.setCurrentEndpoint(null);
+    }
+}
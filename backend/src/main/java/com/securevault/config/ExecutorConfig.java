@@ -0,0 +1,65 @@
+package com.securevault.config;
+
+import com.securevault.service.ClientAddress;
+import com.securevault.service.StageMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * ExecutorConfig - The two bounded thread pools behind request handling
+ * 
+ * cryptoExecutor: parallel encryption/decryption for batch reveals (VaultService), imports
+ * (VaultImportService) and vault audits (VaultAuditService); sized to the core count with a bounded
+ * queue, and a full queue runs the task on the caller's thread (CallerRunsPolicy), so work slows down
+ * instead of failing
+ * 
+ * requestExecutor: runs controller handlers through ResponseExecutor when vault.async.enabled=true,
+ * and streamed responses (vault export) as the Spring MVC async executor, see WebConfig;
+ * a full queue rejects the task (AbortPolicy) and ApiExceptionHandler answers 503 with Retry-After
+ * 
+ * BCrypt and PBKDF2 run on neither: KdfExecutor owns its own pool (429 when saturated)
+ * 
+ * Both carry the submitting request's endpoint (stage timers) and client address (attempt throttle)
+ * onto the pool thread
+ */
+@Configuration
+public class ExecutorConfig {
+    
+    @Bean(name = "cryptoExecutor")
+    public ThreadPoolTaskExecutor cryptoExecutor(
+            @Value("${vault.crypto.pool-size:0}") int poolSize,
+            @Value("${vault.crypto.queue-capacity:1000}") int queueCapacity) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("crypto-");
+        executor.setTaskDecorator(ExecutorConfig::withRequestContext);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+    
+    @Bean(name = "requestExecutor")
+    public ThreadPoolTaskExecutor requestExecutor(
+            @Value("${vault.async.pool-size:32}") int poolSize,
+            @Value("${vault.async.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("request-");
+        executor.setTaskDecorator(ExecutorConfig::withRequestContext);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+    
+    private static Runnable withRequestContext(Runnable task) {
+        return StageMetrics.withCurrentEndpoint(ClientAddress.withCurrent(task));
+    }
+}
@@ -1,6 +1,9 @@
 package com.securevault.config;
 
+import com.securevault.service.JwtPrincipal;
 import com.securevault.service.JwtService;
+import com.securevault.service.SessionRevocationList;
+import com.securevault.service.StageMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,13 +14,17 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Optional;
 
 /**
  * JwtAuthFilter - Intercepts requests and validates JWT tokens
  * Extracts user information from token and sets authentication context
+ * Tokens of revoked sessions are rejected (Bloom filter check, no database access)
+ * Token verification is timed as the jwt.verify stage, tagged with the route once it is matched
  */
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -25,6 +32,12 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private SessionRevocationList sessionRevocationList;
+    
+    @Autowired
+    private StageMetrics stageMetrics;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
                                     HttpServletResponse response, 
@@ -32,32 +45,45 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         
         // Extract Authorization header
         String authHeader = request.getHeader("Authorization");
+        long verifyNanos = -1;
+        boolean verified = false;
         
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             try {
                 // Extract JWT token
                 String token = authHeader.substring(7);
                 
-                // Validate token
-                if (jwtService.validateToken(token)) {
-                    // Extract username and userId from token
-                    String username = jwtService.extractUsername(token);
-                    Long userId = jwtService.extractUserId(token);
-                    
+                // Verify token and decode username and userId in one parse, then check its session
+                long start = System.nanoTime();
+                Optional<JwtPrincipal> principal = jwtService.verify(token)
+                        .filter(verifiedPrincipal -> !sessionRevocationList.isRevoked(verifiedPrincipal.getSessionId()));
+                verifyNanos = System.nanoTime() - start;
+                verified = principal.isPresent();
+                if (principal.isPresent()) {
                     // Set authentication in security context
                     UsernamePasswordAuthenticationToken authentication = 
-                            new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
+                            new UsernamePasswordAuthenticationToken(principal.get().getUsername(), null, new ArrayList<>());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                     
-                    // Add userId to request attributes for easy access in controllers
-                    request.setAttribute("userId", userId);
+                    // Add userId and sessionId to request attributes for easy access in controllers
+                    request.setAttribute("userId", principal.get().getUserId());
+                    request.setAttribute("sessionId", principal.get().getSessionId());
                 }
             } catch (Exception e) {
                 // Invalid token - continue without authentication
             }
         }
         
-        filterChain.doFilter(request, response);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (verifyNanos >= 0) {
+                // The route pattern is only known once the request has been mapped
+                Object endpoint = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                stageMetrics.record("jwt.verify", endpoint != null ? endpoint.toString() : StageMetrics.NO_ENDPOINT,
+                        verified, verifyNanos);
+            }
+        }
     }
 }
@@ -0,0 +1,24 @@
+package com.securevault.config;
+
+import com.securevault.service.StageMetrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.boot.actuate.metrics.data.DefaultRepositoryTagsProvider;
+import org.springframework.boot.actuate.metrics.data.RepositoryTagsProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RepositoryMetricsConfig - Tags Spring Data repository timers (spring.data.repository.invocations)
+ * with the endpoint that issued the call, next to the default repository/method/state/exception tags
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+    
+    @Bean
+    public RepositoryTagsProvider repositoryTagsProvider() {
+        DefaultRepositoryTagsProvider defaults = new DefaultRepositoryTagsProvider();
+        return invocation -> Tags.of(defaults.repositoryTags(invocation))
+                .and(Tag.of("endpoint", StageMetrics.currentEndpoint()));
+    }
+}
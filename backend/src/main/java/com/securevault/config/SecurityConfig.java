@@ -1,13 +1,18 @@
 package com.securevault.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
@@ -16,10 +21,13 @@ import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
  * 
  * SECURITY CONFIGURATION:
  * 1. JWT-based authentication (stateless)
- * 2. Public endpoints: /auth/register, /auth/login
+ * 2. Public endpoints: /auth/register, /auth/login, /auth/refresh, /auth/logout (logout-all requires JWT),
+ *    /.well-known/jwks.json (token verification keys)
  * 3. Protected endpoints: /vault/** (requires JWT)
  * 4. CORS enabled for frontend integration
  * 5. CSRF disabled (using JWT tokens)
+ * 6. BCrypt strength is fixed by vault.bcrypt.strength or calibrated at startup to vault.bcrypt.target-ms;
+ *    every hash carries its own strength, so older hashes keep verifying and are upgraded on login
  */
 @Configuration
 @EnableWebSecurity
@@ -29,8 +37,14 @@ public class SecurityConfig {
     private JwtAuthFilter jwtAuthFilter;
     
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(@Value("${vault.bcrypt.strength:0}") int strength,
+                                                 @Value("${vault.bcrypt.target-ms:250}") long targetMillis,
+                                                 @Value("${vault.bcrypt.min-strength:10}") int minStrength,
+                                                 @Value("${vault.bcrypt.max-strength:16}") int maxStrength) {
+        if (strength <= 0) {
+            strength = BCryptCalibration.strengthFor(targetMillis, minStrength, maxStrength);
+        }
+        return new BCryptPasswordEncoder(strength);
     }
     
     @Bean
@@ -44,14 +58,24 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .cors(cors -> cors.configure(http))
             .authorizeHttpRequests(auth -> auth
+                // Async dispatches resume a request that was already authorized (e.g. streamed exports)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                .requestMatchers(new AntPathRequestMatcher("/auth/logout-all")).authenticated()
                 .requestMatchers(new AntPathRequestMatcher("/auth/**")).permitAll()
+                .requestMatchers(new AntPathRequestMatcher("/.well-known/jwks.json")).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/h2-console/**")).permitAll()
+                // Actuator endpoints are only served on the management port
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                 .requestMatchers(new AntPathRequestMatcher("/vault/**")).authenticated()
                 .anyRequest().denyAll()
             )
             .sessionManagement(session -> session
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
+            // Missing, expired or revoked access tokens get 401, the client's cue to refresh
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED))
+            )
             .headers(headers -> headers.frameOptions(frame -> frame.disable()))
             .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
         
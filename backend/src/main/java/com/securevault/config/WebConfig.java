@@ -0,0 +1,40 @@
+package com.securevault.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * WebConfig - Registers MVC interceptors and the executor for async request processing
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private EndpointTagInterceptor endpointTagInterceptor;
+    
+    @Autowired
+    private ClientAddressInterceptor clientAddressInterceptor;
+    
+    @Autowired
+    @Qualifier("requestExecutor")
+    private ThreadPoolTaskExecutor requestExecutor;
+    
+    /**
+     * Streamed responses run on the bounded request pool instead of a new thread per request
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(requestExecutor);
+    }
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(endpointTagInterceptor);
+        registry.addInterceptor(clientAddressInterceptor);
+    }
+}
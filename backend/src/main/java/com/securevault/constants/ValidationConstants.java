@@ -73,6 +73,40 @@ public class ValidationConstants {
      */
     public static final int USERNAME_MAX_LENGTH = 50;
     
+    /**
+     * Maximum app name and app username length (password_entries columns)
+     */
+    public static final int APP_NAME_MAX_LENGTH = 255;
+    public static final int APP_USERNAME_MAX_LENGTH = 255;
+    
+    /**
+     * Maximum stored ciphertext size in bytes (password_entries.ciphertext)
+     */
+    public static final int CIPHERTEXT_MAX_LENGTH = 4096;
+    
+    /**
+     * Maximum stored password length in characters
+     * The ciphertext adds a 2-byte header, 12-byte nonce and 16-byte tag to the UTF-8 plaintext,
+     * and a character takes at most 3 UTF-8 bytes, so any password of this length fits the column
+     */
+    public static final int ENTRY_PASSWORD_MAX_LENGTH = (CIPHERTEXT_MAX_LENGTH - 2 - 12 - 16) / 3;
+    
+    /**
+     * Maximum number of entries revealed by one batch request
+     */
+    public static final int BATCH_REVEAL_MAX_SIZE = 100;
+    
+    /**
+     * Default and maximum page size for the vault list
+     */
+    public static final int LIST_PAGE_DEFAULT_SIZE = 100;
+    public static final int LIST_PAGE_MAX_SIZE = 500;
+    
+    /**
+     * Default number of search results
+     */
+    public static final int SEARCH_DEFAULT_LIMIT = 20;
+    
     private ValidationConstants() {
         // Prevent instantiation
     }
@@ -2,17 +2,22 @@ package com.securevault.controller;
 
 import com.securevault.dto.AuthResponse;
 import com.securevault.dto.LoginRequest;
+import com.securevault.dto.RefreshRequest;
 import com.securevault.dto.RegisterRequest;
 import com.securevault.service.AuthService;
+import com.securevault.service.TooManyRequestsException;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * AuthController - Handles authentication endpoints
- * Public endpoints for registration and login
+ * Public endpoints for registration, login, token refresh and logout; logout-all needs an access token
+ * Handlers run through ResponseExecutor (synchronous by default, optionally async)
  */
 @RestController
 @RequestMapping("/auth")
@@ -22,20 +27,27 @@ public class AuthController {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private ResponseExecutor responseExecutor;
+    
     /**
      * POST /auth/register
      * Registers a new user with login password and master password
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request) {
-        try {
-            AuthResponse response = authService.register(request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Registration failed");
-        }
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                AuthResponse response = authService.register(request);
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Registration failed");
+            }
+        });
     }
     
     /**
@@ -43,32 +55,58 @@ public class AuthController {
      * Authenticates user with login password and returns JWT token
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
-        try {
-            AuthResponse response = authService.login(request);
-            return ResponseEntity.ok(response);
-        } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Authentication failed");
-        }
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                AuthResponse response = authService.login(request);
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().body(e.getMessage());
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Authentication failed");
+            }
+        });
     }
-
+    
     /**
-     * Handle validation errors and return detailed error messages
+     * POST /auth/refresh
+     * Exchanges a refresh token for a new access token and refresh token (no password, no BCrypt)
      */
-    @ExceptionHandler(MethodArgumentNotValidException.class)
-    public ResponseEntity<?> handleValidationExceptions(MethodArgumentNotValidException ex) {
-        // Collect all validation errors
-        StringBuilder errorMessage = new StringBuilder();
-        ex.getBindingResult().getAllErrors().forEach((error) -> {
-            String message = error.getDefaultMessage();
-            if (errorMessage.length() > 0) {
-                errorMessage.append(". ");
+    @PostMapping("/refresh")
+    public CompletableFuture<ResponseEntity<?>> refresh(@Valid @RequestBody RefreshRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
             }
-            errorMessage.append(message);
         });
-        
-        return ResponseEntity.badRequest().body(errorMessage.toString());
+    }
+    
+    /**
+     * POST /auth/logout
+     * Ends the session of the refresh token; works with an expired access token
+     */
+    @PostMapping("/logout")
+    public CompletableFuture<ResponseEntity<?>> logout(@Valid @RequestBody RefreshRequest request) {
+        return responseExecutor.respond(() -> {
+            authService.logout(request.getRefreshToken());
+            return ResponseEntity.noContent().build();
+        });
+    }
+    
+    /**
+     * POST /auth/logout-all
+     * Ends every session of the authenticated user
+     */
+    @PostMapping("/logout-all")
+    public CompletableFuture<ResponseEntity<?>> logoutAll(@RequestAttribute("userId") Long userId,
+                                                          @RequestAttribute("sessionId") String sessionId) {
+        return responseExecutor.respond(() -> {
+            authService.logoutAll(userId, sessionId);
+            return ResponseEntity.noContent().build();
+        });
     }
 }
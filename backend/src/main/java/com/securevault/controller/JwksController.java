@@ -0,0 +1,32 @@
+package com.securevault.controller;
+
+import com.securevault.service.JwtKeyRing;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwksController - Publishes the public keys that verify access tokens (JWK Set)
+ * Public and cacheable: verifiers keep the set and only refetch when a token names an unknown kid
+ */
+@RestController
+public class JwksController {
+    
+    @Autowired
+    private JwtKeyRing keyRing;
+    
+    /**
+     * GET /.well-known/jwks.json
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES).cachePublic())
+                .body(keyRing.toJwks());
+    }
+}
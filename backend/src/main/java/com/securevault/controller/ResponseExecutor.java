@@ -0,0 +1,43 @@
+package com.securevault.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * ResponseExecutor - Chooses where controller handlers run
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. Synchronous mode (default): the handler runs on the servlet thread and the
+ *    result is returned as an already-completed future
+ * 2. Async mode (vault.async.enabled=true): the handler runs on the bounded request pool
+ *    and the servlet thread is released, so a small container pool can keep many
+ *    requests waiting on the database or the KDF pool in flight
+ */
+@Component
+public class ResponseExecutor {
+    
+    @Value("${vault.async.enabled:false}")
+    private boolean asyncEnabled;
+    
+    @Autowired
+    @Qualifier("requestExecutor")
+    private Executor requestExecutor;
+    
+    /**
+     * Runs the handler in the configured mode
+     * Exceptions from the handler reach the exception handlers in both modes
+     */
+    public CompletableFuture<ResponseEntity<?>> respond(Supplier<ResponseEntity<?>> handler) {
+        if (!asyncEnabled) {
+            return CompletableFuture.completedFuture(handler.get());
+        }
+        return CompletableFuture.supplyAsync(handler, requestExecutor);
+    }
+}
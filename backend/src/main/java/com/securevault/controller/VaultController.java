@@ -1,39 +1,144 @@
 package com.securevault.controller;
 
+import com.securevault.constants.ValidationConstants;
 import com.securevault.dto.AddPasswordRequest;
+import com.securevault.dto.BatchPasswordResult;
 import com.securevault.dto.DecryptedPasswordResponse;
+import com.securevault.dto.ImportResponse;
 import com.securevault.dto.PasswordEntryResponse;
+import com.securevault.dto.PasswordPageResponse;
+import com.securevault.dto.ShowBatchRequest;
 import com.securevault.dto.ShowPasswordRequest;
+import com.securevault.dto.UnlockRequest;
+import com.securevault.dto.UnlockResponse;
+import com.securevault.dto.VaultAuditRequest;
+import com.securevault.dto.VaultAuditResponse;
+import com.securevault.service.PayloadTooLargeException;
+import com.securevault.service.TooManyRequestsException;
+import com.securevault.service.VaultArchiveService;
+import com.securevault.service.VaultAuditService;
+import com.securevault.service.VaultChangeService;
+import com.securevault.service.VaultImportService;
 import com.securevault.service.VaultService;
+import com.securevault.service.VaultVersionStore;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * VaultController - Handles password vault operations
  * All endpoints require JWT authentication
+ * Non-streaming endpoints run through ResponseExecutor (synchronous by default, optionally async)
  */
 @RestController
 @RequestMapping("/vault")
-@CrossOrigin(origins = {"http://localhost:3000", "${cors.allowed-origins:}"})
+@CrossOrigin(origins = {"http://localhost:3000", "${cors.allowed-origins:}"}, exposedHeaders = {"X-Next-Cursor", "ETag"})
 public class VaultController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     @Autowired
     private VaultService vaultService;
     
+    @Autowired
+    private VaultImportService vaultImportService;
+    
+    @Autowired
+    private VaultArchiveService vaultArchiveService;
+    
+    @Autowired
+    private VaultAuditService vaultAuditService;
+    
+    @Autowired
+    private VaultVersionStore vaultVersionStore;
+    
+    @Autowired
+    private VaultChangeService vaultChangeService;
+    
+    @Autowired
+    private ResponseExecutor responseExecutor;
+    
     /**
-     * GET /vault/passwords
-     * Returns all password entries for authenticated user
+     * GET /vault/passwords?cursor=&limit=
+     * Returns one page of password entries for authenticated user, ordered by app name
+     * The cursor for the next page is returned in the X-Next-Cursor header (absent on the last page)
+     * Every page carries the vault version (the user's last change sequence) as a strong ETag;
+     * a matching If-None-Match is answered with 304 Not Modified after one primary key read
      * Passwords are masked
      */
     @GetMapping("/passwords")
-    public ResponseEntity<List<PasswordEntryResponse>> getAllPasswords(
-            @RequestAttribute("userId") Long userId) {
-        List<PasswordEntryResponse> passwords = vaultService.getAllPasswords(userId);
-        return ResponseEntity.ok(passwords);
+    public CompletableFuture<ResponseEntity<?>> getAllPasswords(
+            @RequestAttribute("userId") Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + ValidationConstants.LIST_PAGE_DEFAULT_SIZE) int limit,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        int pageSize = Math.max(1, Math.min(limit, ValidationConstants.LIST_PAGE_MAX_SIZE));
+        return responseExecutor.respond(() -> {
+            // Read before the query: a write racing with it makes the next request miss, never serve stale data
+            String etag = vaultVersionStore.etag(userId);
+            if (VaultVersionStore.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            try {
+                PasswordPageResponse page = vaultService.getPasswordPage(userId, cursor, pageSize);
+                ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag);
+                if (page.getNextCursor() != null) {
+                    response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+                }
+                return response.body(page.getEntries());
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().body("Invalid cursor");
+            }
+        });
+    }
+    
+    /**
+     * GET /vault/changes?since=&limit=
+     * Delta sync: entries added and ids deleted after the cursor, oldest first
+     * Start with since=0; pass the returned cursor on the next call
+     * Passwords are masked
+     */
+    @GetMapping("/changes")
+    public CompletableFuture<ResponseEntity<?>> getChanges(
+            @RequestAttribute("userId") Long userId,
+            @RequestParam(defaultValue = "0") String since,
+            @RequestParam(defaultValue = "" + ValidationConstants.LIST_PAGE_MAX_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, ValidationConstants.LIST_PAGE_MAX_SIZE));
+        long cursor;
+        try {
+            cursor = Long.parseLong(since);
+        } catch (NumberFormatException e) {
+            cursor = -1;
+        }
+        if (cursor < 0) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Invalid cursor"));
+        }
+        long from = cursor;
+        return responseExecutor.respond(() -> ResponseEntity.ok(vaultChangeService.getChanges(userId, from, pageSize)));
+    }
+    
+    /**
+     * GET /vault/search?q=&limit=
+     * Searches entries by app name and username, best matches first
+     * Passwords are masked
+     */
+    @GetMapping("/search")
+    public CompletableFuture<ResponseEntity<?>> searchPasswords(
+            @RequestAttribute("userId") Long userId,
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "" + ValidationConstants.SEARCH_DEFAULT_LIMIT) int limit) {
+        int maxResults = Math.max(1, Math.min(limit, ValidationConstants.LIST_PAGE_MAX_SIZE));
+        return responseExecutor.respond(() -> ResponseEntity.ok(vaultService.searchPasswords(userId, query, maxResults)));
     }
     
     /**
@@ -42,15 +147,40 @@ public class VaultController {
      * Requires master password for encryption
      */
     @PostMapping("/add")
-    public ResponseEntity<?> addPassword(
+    public CompletableFuture<ResponseEntity<?>> addPassword(
             @RequestAttribute("userId") Long userId,
             @Valid @RequestBody AddPasswordRequest request) {
-        try {
-            PasswordEntryResponse response = vaultService.addPassword(userId, request);
-            return ResponseEntity.ok(response);
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to add password");
-        }
+        return responseExecutor.respond(() -> {
+            try {
+                PasswordEntryResponse response = vaultService.addPassword(userId, request);
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Failed to add password");
+            }
+        });
+    }
+    
+    /**
+     * POST /vault/unlock
+     * Verifies the master PIN once and returns a short-lived unlock handle
+     * The handle can be sent as unlockToken to /vault/add and /vault/show/{id}
+     */
+    @PostMapping("/unlock")
+    public CompletableFuture<ResponseEntity<?>> unlock(
+            @RequestAttribute("userId") Long userId,
+            @Valid @RequestBody UnlockRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                UnlockResponse response = vaultService.unlock(userId, request.getMasterPin());
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Failed to unlock vault");
+            }
+        });
     }
     
     /**
@@ -59,16 +189,150 @@ public class VaultController {
      * CRITICAL: Requires master password verification before decryption
      */
     @PostMapping("/show/{id}")
-    public ResponseEntity<?> showPassword(
+    public CompletableFuture<ResponseEntity<?>> showPassword(
             @RequestAttribute("userId") Long userId,
             @PathVariable Long id,
             @Valid @RequestBody ShowPasswordRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                DecryptedPasswordResponse response = vaultService.showPassword(
+                        userId, id, request.getMasterPin(), request.getUnlockToken());
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Failed to decrypt password");
+            }
+        });
+    }
+    
+    /**
+     * POST /vault/show-batch
+     * Shows (decrypts) several password entries with one master PIN verification
+     * Returns one result per requested ID, with per-entry errors
+     */
+    @PostMapping("/show-batch")
+    public CompletableFuture<ResponseEntity<?>> showPasswords(
+            @RequestAttribute("userId") Long userId,
+            @Valid @RequestBody ShowBatchRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                List<BatchPasswordResult> response = vaultService.showPasswords(
+                        userId, request.getIds(), request.getMasterPin(), request.getUnlockToken());
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Failed to decrypt passwords");
+            }
+        });
+    }
+    
+    /**
+     * POST /vault/audit
+     * Reports reused and weak passwords with one master PIN verification
+     * Only entry ids, names and reasons are returned, never a password
+     */
+    @PostMapping("/audit")
+    public CompletableFuture<ResponseEntity<?>> auditVault(
+            @RequestAttribute("userId") Long userId,
+            @Valid @RequestBody VaultAuditRequest request) {
+        return responseExecutor.respond(() -> {
+            try {
+                VaultAuditResponse response = vaultAuditService.audit(
+                        userId, request.getMasterPin(), request.getUnlockToken());
+                return ResponseEntity.ok(response);
+            } catch (TooManyRequestsException e) {
+                throw e;
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Failed to audit vault");
+            }
+        });
+    }
+    
+    /**
+     * POST /vault/import
+     * Streams a CSV (text/csv) or JSON array (application/json) export into the vault
+     * The master PIN or unlock token is sent in the X-Master-Pin / X-Unlock-Token header
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<?> importPasswords(
+            @RequestAttribute("userId") Long userId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(value = "X-Master-Pin", required = false) String masterPin,
+            @RequestHeader(value = "X-Unlock-Token", required = false) String unlockToken,
+            HttpServletRequest request) {
+        if (unlockToken == null && (masterPin == null || !masterPin.matches(ValidationConstants.PIN_PATTERN))) {
+            return ResponseEntity.badRequest().body(ValidationConstants.PIN_VALIDATION_MESSAGE);
+        }
+        try {
+            boolean csv = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType("text/csv"));
+            ImportResponse response = vaultImportService.importPasswords(
+                    userId, request.getInputStream(), csv, masterPin, unlockToken);
+            return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Failed to import passwords");
+        }
+    }
+    
+    /**
+     * GET /vault/import/progress
+     * Returns the progress of the authenticated user's running import
+     */
+    @GetMapping("/import/progress")
+    public ResponseEntity<?> getImportProgress(@RequestAttribute("userId") Long userId) {
+        return vaultImportService.getProgress(userId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * GET /vault/export
+     * Streams an encrypted archive of all the user's entries
+     * The archive is keyed from the master PIN sent in the X-Master-Pin header
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportVault(
+            @RequestAttribute("userId") Long userId,
+            @RequestHeader(value = "X-Master-Pin", required = false) String masterPin) {
+        if (masterPin == null || !masterPin.matches(ValidationConstants.PIN_PATTERN)) {
+            return textBadRequest(ValidationConstants.PIN_VALIDATION_MESSAGE);
+        }
         try {
-            DecryptedPasswordResponse response = vaultService.showPassword(
-                    userId, id, request.getMasterPin());
+            StreamingResponseBody body = vaultArchiveService.exportArchive(userId, masterPin);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"securevault.svlt\"")
+                    .body(body);
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            return textBadRequest("Failed to export vault");
+        }
+    }
+    
+    /**
+     * POST /vault/restore
+     * Restores entries from an archive produced by /vault/export
+     * The master PIN used for the export is sent in the X-Master-Pin header
+     */
+    @PostMapping(value = "/restore", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> restoreVault(
+            @RequestAttribute("userId") Long userId,
+            @RequestHeader(value = "X-Master-Pin", required = false) String masterPin,
+            HttpServletRequest request) {
+        if (masterPin == null || !masterPin.matches(ValidationConstants.PIN_PATTERN)) {
+            return ResponseEntity.badRequest().body(ValidationConstants.PIN_VALIDATION_MESSAGE);
+        }
+        try {
+            ImportResponse response = vaultArchiveService.restoreArchive(userId, request.getInputStream(), masterPin);
             return ResponseEntity.ok(response);
+        } catch (TooManyRequestsException | PayloadTooLargeException e) {
+            throw e;
         } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to decrypt password");
+            return ResponseEntity.badRequest().body("Failed to restore vault");
         }
     }
     
@@ -77,14 +341,25 @@ public class VaultController {
      * Deletes a password entry
      */
     @DeleteMapping("/delete/{id}")
-    public ResponseEntity<?> deletePassword(
+    public CompletableFuture<ResponseEntity<?>> deletePassword(
             @RequestAttribute("userId") Long userId,
             @PathVariable Long id) {
-        try {
-            vaultService.deletePassword(userId, id);
-            return ResponseEntity.ok("Password deleted successfully");
-        } catch (Exception e) {
-            return ResponseEntity.badRequest().body("Failed to delete password");
-        }
+        return responseExecutor.respond(() -> {
+            try {
+                vaultService.deletePassword(userId, id);
+                return ResponseEntity.ok("Password deleted successfully");
+            } catch (Exception e) {
+                return ResponseEntity.badRequest().body("Failed to delete password");
+            }
+        });
+    }
+    
+    /**
+     * Plain-text 400 for endpoints whose success body is a stream
+     */
+    private static ResponseEntity<StreamingResponseBody> textBadRequest(String message) {
+        return ResponseEntity.badRequest()
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
     }
 }
@@ -3,21 +3,30 @@ package com.securevault.dto;
 import com.securevault.constants.ValidationConstants;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 @Data
-public class AddPasswordRequest {
+public class AddPasswordRequest implements PinOrUnlockTokenRequest {
     @NotBlank(message = "App name is required")
+    @Size(max = ValidationConstants.APP_NAME_MAX_LENGTH,
+          message = "App name must be at most " + ValidationConstants.APP_NAME_MAX_LENGTH + " characters")
     private String appName;
     
     @NotBlank(message = "App username is required")
+    @Size(max = ValidationConstants.APP_USERNAME_MAX_LENGTH,
+          message = "App username must be at most " + ValidationConstants.APP_USERNAME_MAX_LENGTH + " characters")
     private String appUsername;
     
     @NotBlank(message = "Password is required")
+    @Size(max = ValidationConstants.ENTRY_PASSWORD_MAX_LENGTH,
+          message = "Password must be at most " + ValidationConstants.ENTRY_PASSWORD_MAX_LENGTH + " characters")
     private String password;
     
-    @NotBlank(message = "Master PIN is required")
     @Pattern(regexp = ValidationConstants.PIN_PATTERN,
              message = ValidationConstants.PIN_VALIDATION_MESSAGE)
     private String masterPin;
+    
+    // Handle from POST /vault/unlock, accepted instead of the master PIN
+    private String unlockToken;
 }
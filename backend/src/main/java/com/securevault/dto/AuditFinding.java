@@ -0,0 +1,18 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One entry flagged by the vault audit, with the reasons; never carries the password
+ */
+@Data
+@AllArgsConstructor
+public class AuditFinding {
+    private Long id;
+    private String appName;
+    private String appUsername;
+    private List<String> reasons;
+}
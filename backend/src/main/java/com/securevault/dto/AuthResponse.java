@@ -8,4 +8,7 @@ import lombok.Data;
 public class AuthResponse {
     private String token;
     private String username;
+    private String refreshToken;
+    // Access token lifetime in seconds; refresh before it runs out
+    private long expiresIn;
 }
@@ -0,0 +1,12 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BatchPasswordResult {
+    private Long id;
+    private String password;
+    private String error;
+}
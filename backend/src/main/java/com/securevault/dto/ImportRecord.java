@@ -0,0 +1,41 @@
+package com.securevault.dto;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One credential read from an import file
+ * Aliases cover the field names used by common password manager exports
+ * A record the reader could not parse carries the reason in error instead of fields
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ImportRecord {
+    @JsonAlias({"name", "title"})
+    private String appName;
+    
+    @JsonAlias({"username", "login_username", "login"})
+    private String appUsername;
+    
+    @JsonAlias({"login_password"})
+    private String password;
+    
+    @JsonIgnore
+    private String error;
+    
+    public ImportRecord(String appName, String appUsername, String password) {
+        this.appName = appName;
+        this.appUsername = appUsername;
+        this.password = password;
+    }
+    
+    public static ImportRecord rejected(String error) {
+        ImportRecord record = new ImportRecord();
+        record.setError(error);
+        return record;
+    }
+}
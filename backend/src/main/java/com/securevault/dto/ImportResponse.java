@@ -0,0 +1,16 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ImportResponse {
+    private long processed;
+    private long imported;
+    private long failed;
+    private List<String> errors;
+    private boolean completed;
+}
@@ -0,0 +1,16 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Change feed projection of a password entry; never carries the ciphertext
+ */
+@Data
+@AllArgsConstructor
+public class PasswordEntryChange {
+    private Long id;
+    private String appName;
+    private String appUsername;
+    private Long changeSeq;
+}
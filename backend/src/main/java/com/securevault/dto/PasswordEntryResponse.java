@@ -1,5 +1,6 @@
 package com.securevault.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -12,4 +13,8 @@ public class PasswordEntryResponse {
     private String appName;
     private String appUsername;
     private String maskedPassword;
+    
+    // Set only by POST /vault/add when a breached-password index is configured
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean breached;
 }
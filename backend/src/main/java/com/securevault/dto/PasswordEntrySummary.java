@@ -0,0 +1,15 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * List projection of a password entry; never carries the ciphertext
+ */
+@Data
+@AllArgsConstructor
+public class PasswordEntrySummary {
+    private Long id;
+    private String appName;
+    private String appUsername;
+}
@@ -0,0 +1,13 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class PasswordPageResponse {
+    private List<PasswordEntryResponse> entries;
+    private String nextCursor;
+}
@@ -0,0 +1,21 @@
+package com.securevault.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+
+/**
+ * Request that authorizes vault decryption with either the master PIN or an unlock token
+ * (the handle from POST /vault/unlock); validation requires at least one of them
+ */
+public interface PinOrUnlockTokenRequest {
+    
+    String getMasterPin();
+    
+    String getUnlockToken();
+    
+    @AssertTrue(message = "Master PIN is required")
+    default boolean isMasterPinOrUnlockTokenPresent() {
+        String masterPin = getMasterPin();
+        String unlockToken = getUnlockToken();
+        return (masterPin != null && !masterPin.isBlank()) || (unlockToken != null && !unlockToken.isBlank());
+    }
+}
@@ -0,0 +1,24 @@
+package com.securevault.dto;
+
+import com.securevault.constants.ValidationConstants;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ShowBatchRequest implements PinOrUnlockTokenRequest {
+    @NotEmpty(message = "At least one entry ID is required")
+    @Size(max = ValidationConstants.BATCH_REVEAL_MAX_SIZE,
+          message = "At most " + ValidationConstants.BATCH_REVEAL_MAX_SIZE + " entries can be revealed at once")
+    private List<Long> ids;
+    
+    @Pattern(regexp = ValidationConstants.PIN_PATTERN,
+             message = ValidationConstants.PIN_VALIDATION_MESSAGE)
+    private String masterPin;
+    
+    // Handle from POST /vault/unlock, accepted instead of the master PIN
+    private String unlockToken;
+}
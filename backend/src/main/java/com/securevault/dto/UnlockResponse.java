@@ -0,0 +1,11 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class UnlockResponse {
+    private String unlockToken;
+    private long expiresIn;
+}
@@ -0,0 +1,16 @@
+package com.securevault.dto;
+
+import com.securevault.constants.ValidationConstants;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+@Data
+public class VaultAuditRequest implements PinOrUnlockTokenRequest {
+    @Pattern(regexp = ValidationConstants.PIN_PATTERN,
+             message = ValidationConstants.PIN_VALIDATION_MESSAGE)
+    private String masterPin;
+    
+    // Handle from POST /vault/unlock, accepted instead of the master PIN
+    // (entries in the legacy PIN-keyed format are then skipped)
+    private String unlockToken;
+}
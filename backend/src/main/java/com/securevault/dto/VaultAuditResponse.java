@@ -0,0 +1,24 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Vault health report
+ * - entries: entries in the vault
+ * - audited: entries decrypted and checked
+ * - reused: groups of two or more entries that share one password
+ * - weak: entries whose password is weak, with the reasons
+ * - skipped: entries that could not be checked, with the reason
+ */
+@Data
+@AllArgsConstructor
+public class VaultAuditResponse {
+    private int entries;
+    private int audited;
+    private List<List<PasswordEntrySummary>> reused;
+    private List<AuditFinding> weak;
+    private List<AuditFinding> skipped;
+}
@@ -0,0 +1,24 @@
+package com.securevault.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of the delta sync feed
+ * - changed: entries added or changed since the cursor (masked); apply before deleted
+ * - deleted: ids of entries deleted since the cursor
+ * - cursor: pass as since on the next call
+ * - hasMore: another page is available right away
+ * - resync: the cursor is older than the retained tombstones; drop the local copy and sync again from 0
+ */
+@Data
+@AllArgsConstructor
+public class VaultChangesResponse {
+    private List<PasswordEntryResponse> changed;
+    private List<Long> deleted;
+    private String cursor;
+    private boolean hasMore;
+    private boolean resync;
+}
@@ -1,5 +1,6 @@
 package com.securevault.entity;
 
+import com.securevault.constants.ValidationConstants;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -9,17 +10,27 @@ import java.time.LocalDateTime;
 /**
  * PasswordEntry Entity
  * Stores encrypted password entries for applications
- * - encryptedPassword: AES-256 encrypted password (encrypted using key derived from master password)
+ * - ciphertext: AES-256 encrypted password in binary form (version header + nonce/IV + data)
+ * - encryptedPassword: Base64 ciphertext of rows not yet migrated to the binary column
+ * - envelopeEncrypted: key source of rows not yet migrated; true if encrypted with the user's data key,
+ *   false/null for legacy entries encrypted with a per-entry key derived from the master PIN
+ * - changeSeq: position of the entry's last change in its owner's change sequence (delta sync)
  */
 @Entity
-@Table(name = "password_entries")
+@Table(name = "password_entries", indexes = {
+        @Index(name = "idx_password_entries_user_app_name", columnList = "userId, appName, id"),
+        @Index(name = "idx_password_entries_user_id", columnList = "userId, id"),
+        @Index(name = "idx_password_entries_user_change", columnList = "userId, changeSeq")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class PasswordEntry {
     
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "password_entries_seq")
+    @SequenceGenerator(name = "password_entries_seq", sequenceName = "password_entries_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -31,9 +42,18 @@ public class PasswordEntry {
     @Column(nullable = false)
     private String appUsername;
     
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Column(length = ValidationConstants.CIPHERTEXT_MAX_LENGTH)
+    private byte[] ciphertext;
+    
+    @Column(columnDefinition = "TEXT")
     private String encryptedPassword;
     
+    @Column
+    private Boolean envelopeEncrypted;
+    
+    @Column(nullable = false)
+    private Long changeSeq;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
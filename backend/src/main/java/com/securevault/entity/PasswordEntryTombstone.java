@@ -0,0 +1,37 @@
+package com.securevault.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * PasswordEntryTombstone Entity
+ * Records a deleted password entry so delta sync clients can drop it from their copy
+ * - changeSeq: position of the deletion in the owner's change sequence
+ * - deletedAt: compaction removes tombstones older than the retention period
+ */
+@Entity
+@Table(name = "password_entry_tombstones", indexes = {
+        @Index(name = "idx_password_entry_tombstones_user_change", columnList = "userId, changeSeq"),
+        @Index(name = "idx_password_entry_tombstones_deleted_at", columnList = "deletedAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordEntryTombstone {
+    
+    // Id of the deleted entry; entry ids are never reused
+    @Id
+    private Long entryId;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private Long changeSeq;
+    
+    @Column(nullable = false)
+    private LocalDateTime deletedAt;
+}
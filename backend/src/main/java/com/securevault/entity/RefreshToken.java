@@ -0,0 +1,42 @@
+package com.securevault.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * RefreshToken Entity
+ * One issued refresh token; the raw token is only ever held by the client
+ * - tokenHash: SHA-256 digest of the raw token
+ * - familyId: session the token belongs to, shared by all its rotations and carried by access tokens as sid
+ * - used: set when the token is rotated; presenting a used token again revokes the whole family
+ */
+@Entity
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family", columnList = "familyId"),
+        @Index(name = "idx_refresh_tokens_user", columnList = "userId"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    
+    @Id
+    @Column(length = 64)
+    private String tokenHash;
+    
+    @Column(nullable = false, length = 64)
+    private String familyId;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private boolean used;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,32 @@
+package com.securevault.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * RevokedSession Entity
+ * A logged-out or compromised session whose access tokens must no longer be accepted
+ * - expiresAt: the last access token of the session has expired by then, so the row can be dropped
+ */
+@Entity
+@Table(name = "revoked_sessions", indexes = {
+        @Index(name = "idx_revoked_sessions_expires_at", columnList = "expiresAt")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedSession {
+    
+    @Id
+    @Column(length = 64)
+    private String sessionId;
+    
+    @Column(nullable = false)
+    private Long userId;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -11,6 +11,7 @@ import java.time.LocalDateTime;
  * Stores user authentication credentials
  * - loginPasswordHash: BCrypt hash of login password (for authentication)
  * - masterPinHash: BCrypt hash of 4-digit PIN (for vault decryption authorization)
+ * - encryptedDataKey: per-user AES-256 data key, wrapped with a key derived from the master PIN
  */
 @Entity
 @Table(name = "users")
@@ -32,6 +33,9 @@ public class User {
     @Column(nullable = false)
     private String masterPinHash;
     
+    @Column(columnDefinition = "TEXT")
+    private String encryptedDataKey;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt;
     
@@ -0,0 +1,26 @@
+package com.securevault.repository;
+
+import com.securevault.entity.PasswordEntryTombstone;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PasswordEntryTombstoneRepository extends JpaRepository<PasswordEntryTombstone, Long> {
+    // Ordered by the leading userId column so H2 reads the (userId, changeSeq) index in order
+    @Query("select t from PasswordEntryTombstone t where t.userId = :userId "
+            + "and t.changeSeq > :since and t.changeSeq <= :until order by t.userId, t.changeSeq")
+    List<PasswordEntryTombstone> findChanges(@Param("userId") Long userId,
+                                             @Param("since") long since,
+                                             @Param("until") long until,
+                                             Pageable pageable);
+    
+    @Modifying
+    @Query("delete from PasswordEntryTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,13 +1,63 @@
 package com.securevault.repository;
 
+import com.securevault.dto.PasswordEntryChange;
+import com.securevault.dto.PasswordEntrySummary;
 import com.securevault.entity.PasswordEntry;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PasswordRepository extends JpaRepository<PasswordEntry, Long> {
-    List<PasswordEntry> findByUserId(Long userId);
+    // Keyset pagination over (appName, id); the projection never selects the ciphertext columns
+    // The redundant appName >= bound gives the index a range start, so later pages do not rescan earlier ones;
+    // ordering by the leading userId column lets H2 read rows in index order instead of sorting the whole vault
+    @Query("select new com.securevault.dto.PasswordEntrySummary(e.id, e.appName, e.appUsername) "
+            + "from PasswordEntry e where e.userId = :userId order by e.userId, e.appName, e.id")
+    List<PasswordEntrySummary> findSummaries(@Param("userId") Long userId, Pageable pageable);
+    
+    @Query("select new com.securevault.dto.PasswordEntrySummary(e.id, e.appName, e.appUsername) "
+            + "from PasswordEntry e where e.userId = :userId "
+            + "and e.appName >= :appName and (e.appName > :appName or e.id > :id) "
+            + "order by e.userId, e.appName, e.id")
+    List<PasswordEntrySummary> findSummariesAfter(@Param("userId") Long userId,
+                                                  @Param("appName") String appName,
+                                                  @Param("id") Long id,
+                                                  Pageable pageable);
+    
+    // Delta sync over the (userId, changeSeq) index; bounded above so every row read has committed
+    @Query("select new com.securevault.dto.PasswordEntryChange(e.id, e.appName, e.appUsername, e.changeSeq) "
+            + "from PasswordEntry e where e.userId = :userId and e.changeSeq > :since and e.changeSeq <= :until "
+            + "order by e.userId, e.changeSeq")
+    List<PasswordEntryChange> findChanges(@Param("userId") Long userId,
+                                          @Param("since") long since,
+                                          @Param("until") long until,
+                                          Pageable pageable);
+    
     Optional<PasswordEntry> findByIdAndUserId(Long id, Long userId);
+    List<PasswordEntry> findByUserIdAndIdIn(Long userId, Collection<Long> ids);
+    List<PasswordEntry> findByCiphertextIsNull(Pageable pageable);
+    
+    // Replaces an entry's ciphertext in one UPDATE, clearing the legacy Base64 columns
+    @Modifying
+    @Transactional
+    @Query("update PasswordEntry e set e.ciphertext = :ciphertext, e.encryptedPassword = null, "
+            + "e.envelopeEncrypted = null where e.id = :id and e.userId = :userId")
+    int updateCiphertext(@Param("id") Long id, @Param("userId") Long userId, @Param("ciphertext") byte[] ciphertext);
+    
+    // Cursor-backed; must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select e from PasswordEntry e where e.userId = :userId order by e.userId, e.id")
+    Stream<PasswordEntry> streamByUserIdOrderById(@Param("userId") Long userId);
 }
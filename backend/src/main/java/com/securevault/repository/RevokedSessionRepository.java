@@ -0,0 +1,20 @@
+package com.securevault.repository;
+
+import com.securevault.entity.RevokedSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedSessionRepository extends JpaRepository<RevokedSession, String> {
+    @Query("select s from RevokedSession s where s.expiresAt > :now")
+    List<RevokedSession> findActive(@Param("now") LocalDateTime now);
+    
+    @Modifying
+    @Query("delete from RevokedSession s where s.expiresAt <= :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
@@ -2,11 +2,60 @@ package com.securevault.repository;
 
 import com.securevault.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+    
+    // Re-hash writes only replace the hash that was verified, so a concurrent change is never overwritten
+    @Modifying
+    @Transactional
+    @Query("update User u set u.loginPasswordHash = :newHash where u.id = :userId and u.loginPasswordHash = :oldHash")
+    int replaceLoginPasswordHash(@Param("userId") Long userId, @Param("oldHash") String oldHash,
+                                 @Param("newHash") String newHash);
+    
+    @Modifying
+    @Transactional
+    @Query("update User u set u.masterPinHash = :newHash where u.id = :userId and u.masterPinHash = :oldHash")
+    int replaceMasterPinHash(@Param("userId") Long userId, @Param("oldHash") String oldHash,
+                             @Param("newHash") String newHash);
+    
+    // Writes only the wrapped data key, so a User loaded before a re-hash cannot write the old hashes back;
+    // only the first of several concurrent first unlocks stores its key (0 = another key is already stored)
+    @Modifying
+    @Transactional
+    @Query("update User u set u.encryptedDataKey = :encryptedDataKey "
+            + "where u.id = :userId and u.encryptedDataKey is null")
+    int storeEncryptedDataKeyIfAbsent(@Param("userId") Long userId,
+                                      @Param("encryptedDataKey") String encryptedDataKey);
+    
+    @Query(value = "select encrypted_data_key from users where id = :userId", nativeQuery = true)
+    String getEncryptedDataKey(@Param("userId") Long userId);
+    
+    // Change sequence columns are not mapped on User, so saving a loaded User can never roll them back
+    @Modifying
+    @Query(value = "update users set last_change_seq = last_change_seq + :count where id = :userId", nativeQuery = true)
+    int advanceChangeSeq(@Param("userId") Long userId, @Param("count") int count);
+    
+    @Query(value = "select last_change_seq from users where id = :userId", nativeQuery = true)
+    long getLastChangeSeq(@Param("userId") Long userId);
+    
+    @Query(value = "select tombstone_horizon from users where id = :userId", nativeQuery = true)
+    long getTombstoneHorizon(@Param("userId") Long userId);
+    
+    // Raises each affected user's horizon to the newest tombstone about to be compacted
+    @Modifying
+    @Query(value = "update users u set tombstone_horizon = (select max(t.change_seq) from password_entry_tombstones t "
+            + "where t.user_id = u.id and t.deleted_at < :cutoff) "
+            + "where exists (select 1 from password_entry_tombstones t where t.user_id = u.id and t.deleted_at < :cutoff)",
+            nativeQuery = true)
+    int raiseTombstoneHorizons(@Param("cutoff") LocalDateTime cutoff);
 }
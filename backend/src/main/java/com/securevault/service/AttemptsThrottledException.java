@@ -0,0 +1,12 @@
+package com.securevault.service;
+
+/**
+ * Thrown when a username, user or client IP has run out of password / PIN attempts
+ * Mapped to 429 Too Many Requests with a Retry-After header
+ */
+public class AttemptsThrottledException extends TooManyRequestsException {
+    
+    public AttemptsThrottledException(long retryAfterSeconds) {
+        super("Too many attempts, please retry later", retryAfterSeconds);
+    }
+}
@@ -9,15 +9,27 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.SecretKey;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
 /**
  * AuthService - Handles user registration and authentication
  * 
  * SECURITY LOGIC:
  * 1. Login password is hashed with BCrypt for authentication
  * 2. Master PIN (4 digits) is hashed with BCrypt for authorization (separate from login)
- * 3. JWT token is generated upon successful login
+ * 3. A session starts at login / registration: a short-lived JWT access token plus a rotating refresh token;
+ *    refresh skips BCrypt, logout revokes the session
  * 4. Master PIN is NEVER stored in plaintext
  * 5. Master PIN hash is used only for verification, not for encryption
+ * 6. Each user gets a random data key at registration, wrapped with a key derived from the master PIN
+ * 7. BCrypt hashing runs on the bounded KDF pool; a full queue fails fast with 429
+ *    and each hash/check is timed as a request stage (bcrypt.hash, bcrypt.login, bcrypt.pin)
+ * 8. Login, PIN and registration attempts pass the AuthThrottle before any lookup or hashing;
+ *    only failed attempts use up the per-username, per-user and per-IP allowance
+ * 9. Each BCrypt hash records its own strength; after a successful check, a hash weaker than the
+ *    configured strength is re-hashed from the just-verified secret, so raising the cost needs no migration
  */
 @Service
 public class AuthService {
@@ -28,36 +40,69 @@ public class AuthService {
     @Autowired
     private JwtService jwtService;
     
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    
     @Autowired
     private BCryptPasswordEncoder passwordEncoder;
     
+    @Autowired
+    private CryptoService cryptoService;
+    
+    @Autowired
+    private KdfExecutor kdfExecutor;
+    
+    @Autowired
+    private StageMetrics stageMetrics;
+    
+    @Autowired
+    private AuthThrottle authThrottle;
+    
+    @Autowired
+    private BreachedPasswordChecker breachedPasswordChecker;
+    
     /**
      * Registers a new user
      * Hashes both login password and master PIN using BCrypt
      */
     public AuthResponse register(RegisterRequest request) {
+        authThrottle.beginRegistration();
+        
         // Check if username already exists
         if (userRepository.existsByUsername(request.getUsername())) {
             throw new RuntimeException("Username already exists. Please choose a different username.");
         }
         
+        // Reject login passwords from the breached-password corpus (checked before the BCrypt work)
+        if (breachedPasswordChecker.isBreached(request.getLoginPassword())) {
+            throw new RuntimeException("This password has appeared in a data breach. Please choose a different password.");
+        }
+        
         // Hash login password with BCrypt
-        String loginPasswordHash = passwordEncoder.encode(request.getLoginPassword());
+        String loginPasswordHash = bcrypt("bcrypt.hash", () -> passwordEncoder.encode(request.getLoginPassword()));
         
         // Hash master PIN with BCrypt (separate from login password)
-        String masterPinHash = passwordEncoder.encode(request.getMasterPin());
+        String masterPinHash = bcrypt("bcrypt.hash", () -> passwordEncoder.encode(request.getMasterPin()));
+        
+        // Generate the user's data key and wrap it with the master PIN
+        String encryptedDataKey;
+        try {
+            encryptedDataKey = cryptoService.wrapDataKey(cryptoService.generateDataKey(), request.getMasterPin());
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Registration failed");
+        }
         
         // Create and save user
         User user = new User();
         user.setUsername(request.getUsername());
         user.setLoginPasswordHash(loginPasswordHash);
         user.setMasterPinHash(masterPinHash);
+        user.setEncryptedDataKey(encryptedDataKey);
         user = userRepository.save(user);
         
-        // Generate JWT token
-        String token = jwtService.generateToken(user.getUsername(), user.getId());
-        
-        return new AuthResponse(token, user.getUsername());
+        return startSession(user);
     }
     
     /**
@@ -65,19 +110,46 @@ public class AuthService {
      * Returns JWT token upon successful authentication
      */
     public AuthResponse login(LoginRequest request) {
+        AuthThrottle.Attempt attempt = authThrottle.beginLogin(request.getUsername());
+        
         // Find user by username
         User user = userRepository.findByUsername(request.getUsername())
                 .orElseThrow(() -> new RuntimeException("Invalid username or password"));
         
         // Verify login password using BCrypt
-        if (!passwordEncoder.matches(request.getLoginPassword(), user.getLoginPasswordHash())) {
+        if (!bcrypt("bcrypt.login", () -> passwordEncoder.matches(request.getLoginPassword(), user.getLoginPasswordHash()))) {
             throw new RuntimeException("Invalid username or password");
         }
+        attempt.succeeded();
+        rehashIfWeak(user.getLoginPasswordHash(), request.getLoginPassword(),
+                newHash -> userRepository.replaceLoginPasswordHash(user.getId(), user.getLoginPasswordHash(), newHash));
         
-        // Generate JWT token
-        String token = jwtService.generateToken(user.getUsername(), user.getId());
-        
-        return new AuthResponse(token, user.getUsername());
+        return startSession(user);
+    }
+    
+    /**
+     * Exchanges a refresh token for a new access token and refresh token of the same session
+     * No password is checked, so no BCrypt work is done
+     */
+    public AuthResponse refresh(String refreshToken) {
+        SessionTokens session = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(session.getUserId())
+                .orElseThrow(() -> new RuntimeException("Invalid refresh token"));
+        return sessionResponse(user, session);
+    }
+    
+    /**
+     * Ends the session of the given refresh token; its access tokens stop working at once
+     */
+    public void logout(String refreshToken) {
+        refreshTokenService.revoke(refreshToken);
+    }
+    
+    /**
+     * Ends every session of the user
+     */
+    public void logoutAll(Long userId, String sessionId) {
+        refreshTokenService.revokeAll(userId, sessionId);
     }
     
     /**
@@ -85,10 +157,80 @@ public class AuthService {
      * Used before decrypting passwords
      */
     public boolean verifyMasterPin(Long userId, String masterPin) {
+        AuthThrottle.Attempt attempt = authThrottle.beginPinCheck(userId);
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
         // Verify master PIN hash using BCrypt
-        return passwordEncoder.matches(masterPin, user.getMasterPinHash());
+        boolean valid = bcrypt("bcrypt.pin", () -> passwordEncoder.matches(masterPin, user.getMasterPinHash()));
+        if (valid) {
+            attempt.succeeded();
+            rehashIfWeak(user.getMasterPinHash(), masterPin,
+                    newHash -> userRepository.replaceMasterPinHash(userId, user.getMasterPinHash(), newHash));
+        }
+        return valid;
+    }
+    
+    /**
+     * Verifies master PIN and unwraps the user's data key
+     * Users registered before data keys existed get one created and stored on first unlock;
+     * concurrent first unlocks all return the one key that was stored
+     */
+    public SecretKey unlockDataKey(Long userId, String masterPin) throws Exception {
+        AuthThrottle.Attempt attempt = authThrottle.beginPinCheck(userId);
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        
+        // Verify master PIN hash using BCrypt
+        if (!bcrypt("bcrypt.pin", () -> passwordEncoder.matches(masterPin, user.getMasterPinHash()))) {
+            throw new RuntimeException("Invalid master PIN");
+        }
+        attempt.succeeded();
+        rehashIfWeak(user.getMasterPinHash(), masterPin,
+                newHash -> userRepository.replaceMasterPinHash(userId, user.getMasterPinHash(), newHash));
+        
+        String encryptedDataKey = user.getEncryptedDataKey();
+        if (encryptedDataKey == null) {
+            SecretKey dataKey = cryptoService.generateDataKey();
+            if (userRepository.storeEncryptedDataKeyIfAbsent(userId, cryptoService.wrapDataKey(dataKey, masterPin)) == 1) {
+                return dataKey;
+            }
+            // A concurrent first unlock stored its key first; only a persisted key may encrypt entries
+            encryptedDataKey = userRepository.getEncryptedDataKey(userId);
+        }
+        
+        return cryptoService.unwrapDataKey(encryptedDataKey, masterPin);
+    }
+    
+    private AuthResponse startSession(User user) {
+        return sessionResponse(user, refreshTokenService.open(user.getId()));
+    }
+    
+    private AuthResponse sessionResponse(User user, SessionTokens session) {
+        String token = jwtService.generateToken(user.getUsername(), user.getId(), session.getSessionId());
+        return new AuthResponse(token, user.getUsername(), session.getRefreshToken(), jwtService.getAccessTtlSeconds());
+    }
+    
+    /**
+     * Re-hashes a verified secret whose stored hash is weaker than the configured strength
+     * Stronger hashes are kept, so nodes calibrated to different strengths never undo each other's upgrades;
+     * a busy KDF pool skips the upgrade until the next successful check
+     */
+    private void rehashIfWeak(String hash, String secret, Consumer<String> store) {
+        if (!passwordEncoder.upgradeEncoding(hash)) {
+            return;
+        }
+        try {
+            store.accept(bcrypt("bcrypt.hash", () -> passwordEncoder.encode(secret)));
+        } catch (TooManyRequestsException e) {
+            // Verification already succeeded; the old hash stays valid
+        }
+    }
+    
+    /**
+     * Runs a BCrypt hash or check on the KDF pool, timed as a request stage
+     */
+    private <T> T bcrypt(String stage, Callable<T> work) {
+        return stageMetrics.timeUnchecked(stage, () -> kdfExecutor.call(work));
     }
 }
@@ -0,0 +1,247 @@
+package com.securevault.service;
+
+import com.securevault.constants.ValidationConstants;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * AuthThrottle - Token-bucket throttling of login, master PIN and registration attempts
+ * 
+ * SECURITY LOGIC:
+ * 1. Separate buckets per username (login), per user id (master PIN) and per client IP (all attempts)
+ * 2. Checked before the database lookup and BCrypt; an empty bucket is rejected with 429 + Retry-After
+ * 3. Every attempt takes its tokens up front, so a burst of concurrent guesses cannot all pass before
+ *    the first one fails; successful attempts hand them back to the buckets they came from
+ *    (see Attempt), so only failures drain a bucket
+ * 
+ * PERFORMANCE LOGIC:
+ * 4. Each bucket is one AtomicLong updated by CAS (GCRA: the time the bucket would be full again), no locks
+ * 5. A refilled bucket behaves exactly like a missing one, so idle buckets are evicted freely;
+ *    when a map is at capacity, new keys share one overflow bucket instead of growing memory
+ */
+@Component
+public class AuthThrottle {
+    
+    private final boolean enabled;
+    private final long retryAfterCap;
+    private final Buckets usernames;
+    private final Buckets users;
+    private final Buckets addresses;
+    
+    public AuthThrottle(@Value("${vault.throttle.enabled:true}") boolean enabled,
+                        @Value("${vault.throttle.username.capacity:10}") int usernameCapacity,
+                        @Value("${vault.throttle.username.per-minute:5}") int usernamePerMinute,
+                        @Value("${vault.throttle.user.capacity:10}") int userCapacity,
+                        @Value("${vault.throttle.user.per-minute:5}") int userPerMinute,
+                        @Value("${vault.throttle.ip.capacity:50}") int ipCapacity,
+                        @Value("${vault.throttle.ip.per-minute:30}") int ipPerMinute,
+                        @Value("${vault.throttle.max-keys:100000}") int maxKeys,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.retryAfterCap = TimeUnit.MINUTES.toSeconds(1);
+        this.usernames = new Buckets("username", usernameCapacity, usernamePerMinute, maxKeys, meterRegistry);
+        this.users = new Buckets("user", userCapacity, userPerMinute, maxKeys, meterRegistry);
+        this.addresses = new Buckets("ip", ipCapacity, ipPerMinute, maxKeys, meterRegistry);
+    }
+    
+    /**
+     * Takes a login attempt for the username and the client IP
+     * 
+     * @return The attempt; call {@link Attempt#succeeded()} once the password has been verified
+     * @throws AttemptsThrottledException if either bucket is empty
+     */
+    public Attempt beginLogin(String username) {
+        return enabled ? acquire(usernames, usernameKey(username)) : Attempt.NONE;
+    }
+    
+    /**
+     * Takes a master PIN attempt for the user and the client IP
+     * 
+     * @return The attempt; call {@link Attempt#succeeded()} once the PIN has been verified
+     * @throws AttemptsThrottledException if either bucket is empty
+     */
+    public Attempt beginPinCheck(Long userId) {
+        return enabled ? acquire(users, userId) : Attempt.NONE;
+    }
+    
+    /**
+     * Takes a registration from the client IP's bucket; registrations are never handed back
+     * 
+     * @throws AttemptsThrottledException if the bucket is empty
+     */
+    public void beginRegistration() {
+        String address = ClientAddress.current();
+        if (enabled && address != null) {
+            long now = System.nanoTime();
+            long wait = addresses.tryAcquire(addresses.bucket(address, now), now);
+            if (wait > 0) {
+                throw rejected(wait);
+            }
+        }
+    }
+    
+    /**
+     * Drops buckets that have refilled completely
+     */
+    @Scheduled(fixedDelayString = "${vault.throttle.sweep-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        usernames.evictIdle(now);
+        users.evictIdle(now);
+        addresses.evictIdle(now);
+    }
+    
+    private Attempt acquire(Buckets buckets, Object key) {
+        long now = System.nanoTime();
+        String address = ClientAddress.current();
+        AtomicLong addressBucket = null;
+        if (address != null) {
+            addressBucket = addresses.bucket(address, now);
+            long wait = addresses.tryAcquire(addressBucket, now);
+            if (wait > 0) {
+                throw rejected(wait);
+            }
+        }
+        AtomicLong keyBucket = buckets.bucket(key, now);
+        long wait = buckets.tryAcquire(keyBucket, now);
+        if (wait > 0) {
+            if (addressBucket != null) {
+                addresses.release(addressBucket);
+            }
+            throw rejected(wait);
+        }
+        return new Attempt(buckets, keyBucket, addressBucket == null ? null : addresses, addressBucket);
+    }
+    
+    private AttemptsThrottledException rejected(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new AttemptsThrottledException(Math.min(seconds, retryAfterCap));
+    }
+    
+    // No account can have a longer name, so longer keys may share a bucket; bounds key memory
+    private static String usernameKey(String username) {
+        return username.length() > ValidationConstants.USERNAME_MAX_LENGTH
+                ? username.substring(0, ValidationConstants.USERNAME_MAX_LENGTH + 1)
+                : username;
+    }
+    
+    /**
+     * Tokens taken by one login or PIN attempt, with the buckets they came from
+     * A key that got the shared overflow bucket hands its token back to the overflow bucket
+     */
+    public static final class Attempt {
+        
+        private static final Attempt NONE = new Attempt(null, null, null, null);
+        
+        private final Buckets keyBuckets;
+        private final AtomicLong keyBucket;
+        private final Buckets addressBuckets;
+        private final AtomicLong addressBucket;
+        
+        private Attempt(Buckets keyBuckets, AtomicLong keyBucket, Buckets addressBuckets, AtomicLong addressBucket) {
+            this.keyBuckets = keyBuckets;
+            this.keyBucket = keyBucket;
+            this.addressBuckets = addressBuckets;
+            this.addressBucket = addressBucket;
+        }
+        
+        /**
+         * Hands the tokens back, so successful attempts do not drain the buckets
+         */
+        public void succeeded() {
+            if (keyBucket != null) {
+                keyBuckets.release(keyBucket);
+            }
+            if (addressBucket != null) {
+                addressBuckets.release(addressBucket);
+            }
+        }
+    }
+    
+    /**
+     * Token buckets of one dimension, stored as GCRA theoretical arrival times (System.nanoTime based)
+     * A bucket whose time is in the past is full
+     */
+    private static final class Buckets {
+        
+        private final long interval;
+        private final long tolerance;
+        private final int maxKeys;
+        private final Map<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(System.nanoTime());
+        private final AtomicLong lastSweep = new AtomicLong(System.nanoTime());
+        private final Counter rejected;
+        
+        Buckets(String dimension, int capacity, int perMinute, int maxKeys, MeterRegistry meterRegistry) {
+            this.interval = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.tolerance = interval * Math.max(1, capacity);
+            this.maxKeys = maxKeys;
+            Gauge.builder("vault.throttle.keys", buckets, Map::size)
+                    .tag("dimension", dimension)
+                    .description("Attempt buckets currently tracked")
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("vault.throttle.rejected")
+                    .tag("dimension", dimension)
+                    .description("Attempts rejected because the bucket was empty")
+                    .register(meterRegistry);
+        }
+        
+        /**
+         * @param bucket From {@link #bucket}: the key's own bucket or, when the map is full, the overflow bucket
+         * @return 0 if a token was taken, otherwise nanoseconds until one is available
+         */
+        long tryAcquire(AtomicLong bucket, long now) {
+            while (true) {
+                long current = bucket.get();
+                long next = Math.max(current, now) + interval;
+                if (next - now > tolerance) {
+                    rejected.increment();
+                    return next - now - tolerance;
+                }
+                if (bucket.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+        
+        /**
+         * Gives back a token taken from the bucket by tryAcquire; a bucket evicted in between
+         * was already full and is no longer read
+         */
+        void release(AtomicLong bucket) {
+            bucket.addAndGet(-interval);
+        }
+        
+        void evictIdle(long now) {
+            lastSweep.set(now);
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+        
+        AtomicLong bucket(Object key, long now) {
+            AtomicLong bucket = buckets.get(key);
+            if (bucket != null) {
+                return bucket;
+            }
+            if (buckets.size() >= maxKeys) {
+                // Sweep at most once per refill interval, so a full map cannot turn every miss into a scan
+                long last = lastSweep.get();
+                if (now - last >= interval && lastSweep.compareAndSet(last, now)) {
+                    evictIdle(now);
+                }
+                if (buckets.size() >= maxKeys) {
+                    return overflow;
+                }
+            }
+            return buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+    }
+}
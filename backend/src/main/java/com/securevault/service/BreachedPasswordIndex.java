@@ -0,0 +1,140 @@
+package com.securevault.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * BreachedPasswordIndex - Read-only, memory-mapped set of SHA-1 digests of breached passwords
+ * Built from a breach corpus dump by BreachedPasswordIndexBuilder
+ * 
+ * INDEX FORMAT (version 1):
+ * 1. Magic "SVBP" (4 bytes) + Version (1 byte) + 3 reserved bytes + record count (8 bytes)
+ * 2. Fan-out table: 65,536 counts (8 bytes each); entry p = number of records whose first two bytes are <= p
+ * 3. Records: 20-byte SHA-1 digests, sorted ascending (unsigned), without duplicates
+ * All numbers are big-endian
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. The file is mapped, not read: heap use does not depend on its size and the OS page cache keeps
+ *    the pages that lookups touch
+ * 2. The fan-out table narrows a lookup to the records sharing the digest's first two bytes
+ *    (about 1/65,536 of the file) before the binary search
+ * 3. Records are compared in place as two longs and an int; nothing is copied to the heap
+ * 4. One mapping is limited to 2 GB, so larger files are mapped as several segments on record boundaries
+ * 5. Lookups only use absolute reads, so one instance is shared by all threads without locking
+ */
+public final class BreachedPasswordIndex {
+    
+    static final byte[] MAGIC = {'S', 'V', 'B', 'P'};
+    static final byte VERSION = 1;
+    static final int DIGEST_LENGTH = 20;
+    static final int HEADER_LENGTH = 16;
+    static final int FANOUT_ENTRIES = 1 << 16;
+    static final long DATA_OFFSET = HEADER_LENGTH + FANOUT_ENTRIES * 8L;
+    
+    private static final int RECORDS_PER_SEGMENT = Integer.MAX_VALUE / DIGEST_LENGTH;
+    
+    private final MappedByteBuffer fanout;
+    private final MappedByteBuffer[] segments;
+    private final long recordsPerSegment;
+    private final long size;
+    
+    /**
+     * Maps an index file and validates its header and length
+     * 
+     * @throws IllegalArgumentException if the file is not a valid index
+     */
+    public static BreachedPasswordIndex open(Path file) throws IOException {
+        return new BreachedPasswordIndex(file, RECORDS_PER_SEGMENT);
+    }
+    
+    BreachedPasswordIndex(Path file, int recordsPerSegment) throws IOException {
+        // The mappings stay valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < DATA_OFFSET) {
+                throw new IllegalArgumentException("Not a breached-password index: " + file);
+            }
+            fanout = channel.map(FileChannel.MapMode.READ_ONLY, 0, DATA_OFFSET);
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (fanout.get(i) != MAGIC[i]) {
+                    throw new IllegalArgumentException("Not a breached-password index: " + file);
+                }
+            }
+            if (fanout.get(MAGIC.length) != VERSION) {
+                throw new IllegalArgumentException(
+                        "Unsupported breached-password index version " + fanout.get(MAGIC.length));
+            }
+            size = fanout.getLong(8);
+            if (size < 0 || channel.size() != DATA_OFFSET + size * DIGEST_LENGTH
+                    || fanout.getLong(HEADER_LENGTH + (FANOUT_ENTRIES - 1) * 8) != size) {
+                throw new IllegalArgumentException("Truncated or corrupt breached-password index: " + file);
+            }
+            
+            this.recordsPerSegment = recordsPerSegment;
+            segments = new MappedByteBuffer[(int) ((size + recordsPerSegment - 1) / recordsPerSegment)];
+            for (int i = 0; i < segments.length; i++) {
+                long first = (long) i * recordsPerSegment;
+                long records = Math.min(recordsPerSegment, size - first);
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        DATA_OFFSET + first * DIGEST_LENGTH, records * DIGEST_LENGTH);
+            }
+        }
+    }
+    
+    /**
+     * Number of digests in the index
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * @param digest SHA-1 digest, read from offset (20 bytes)
+     */
+    public boolean contains(byte[] digest, int offset) {
+        long high = readBigEndian(digest, offset, 8);
+        long middle = readBigEndian(digest, offset + 8, 8);
+        int low = (int) readBigEndian(digest, offset + 16, 4);
+        
+        int prefix = (int) (high >>> 48);
+        long from = prefix == 0 ? 0 : fanout.getLong(HEADER_LENGTH + (prefix - 1) * 8);
+        long to = fanout.getLong(HEADER_LENGTH + prefix * 8) - 1;
+        while (from <= to) {
+            long mid = (from + to) >>> 1;
+            int compared = compare(mid, high, middle, low);
+            if (compared < 0) {
+                from = mid + 1;
+            } else if (compared > 0) {
+                to = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private int compare(long record, long high, long middle, int low) {
+        ByteBuffer segment = segments[(int) (record / recordsPerSegment)];
+        int position = (int) (record % recordsPerSegment) * DIGEST_LENGTH;
+        int compared = Long.compareUnsigned(segment.getLong(position), high);
+        if (compared == 0) {
+            compared = Long.compareUnsigned(segment.getLong(position + 8), middle);
+        }
+        if (compared == 0) {
+            compared = Integer.compareUnsigned(segment.getInt(position + 16), low);
+        }
+        return compared;
+    }
+    
+    // Same byte order as ByteBuffer's default
+    private static long readBigEndian(byte[] bytes, int offset, int length) {
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+}
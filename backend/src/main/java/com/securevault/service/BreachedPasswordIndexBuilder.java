@@ -0,0 +1,166 @@
+package com.securevault.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+
+/**
+ * BreachedPasswordIndexBuilder - Converts a SHA-1 breached-password dump into a BreachedPasswordIndex file
+ * 
+ * Input: one "HASH" or "HASH:COUNT" line per password (40 hex digits, either case), sorted by hash,
+ * as in the "ordered by hash" SHA-1 download of Pwned Passwords; "-" reads standard input.
+ * Unsorted dumps can be sorted first with: LC_ALL=C sort -f -t: -k1,1 dump.txt
+ * 
+ * The dump is streamed: memory use is the fan-out table and one write buffer, whatever the input size.
+ * The index is written next to the target and moved into place when complete.
+ * 
+ * Usage: BreachedPasswordIndexBuilder <dump.txt|-> <index.bin> [--min-count=N]
+ */
+public final class BreachedPasswordIndexBuilder {
+    
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private BreachedPasswordIndexBuilder() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3 || (args.length == 3 && !args[2].startsWith("--min-count="))) {
+            System.err.println("Usage: BreachedPasswordIndexBuilder <dump.txt|-> <index.bin> [--min-count=N]");
+            System.exit(2);
+        }
+        long minCount = args.length == 3 ? Long.parseLong(args[2].substring("--min-count=".length())) : 1;
+        
+        long start = System.nanoTime();
+        long written;
+        try (BufferedReader in = args[0].equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII), BUFFER_SIZE)
+                : Files.newBufferedReader(Path.of(args[0]), StandardCharsets.US_ASCII)) {
+            written = build(in, Path.of(args[1]), minCount);
+        }
+        System.out.printf("Wrote %,d hashes to %s in %.1f s%n", written, args[1], (System.nanoTime() - start) / 1e9);
+    }
+    
+    /**
+     * Writes the hashes read from the dump to an index file
+     * 
+     * @param minCount Lines whose count is below this are left out (lines without a count always pass)
+     * @return Number of hashes written
+     * @throws IllegalArgumentException on a malformed or out-of-order line
+     */
+    public static long build(BufferedReader in, Path target, long minCount) throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path partial = Files.createTempFile(parent, target.getFileName().toString(), ".partial");
+        try {
+            long written;
+            try (FileChannel out = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                written = write(in, out, minCount);
+                out.force(true);
+            }
+            try {
+                // Temp files are owner-only; the corpus is public and is read by the service account
+                Files.setPosixFilePermissions(partial, PosixFilePermissions.fromString("rw-r--r--"));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system; keep the default permissions
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+    
+    private static long write(BufferedReader in, FileChannel out, long minCount) throws IOException {
+        long[] fanout = new long[BreachedPasswordIndex.FANOUT_ENTRIES];
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE / BreachedPasswordIndex.DIGEST_LENGTH
+                * BreachedPasswordIndex.DIGEST_LENGTH);
+        byte[] previous = null;
+        byte[] digest = new byte[BreachedPasswordIndex.DIGEST_LENGTH];
+        long lineNumber = 0;
+        long written = 0;
+        
+        out.position(BreachedPasswordIndex.DATA_OFFSET);
+        String line;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            line = line.strip();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int separator = line.indexOf(':');
+            if (!parseHex(line, separator < 0 ? line.length() : separator, digest)) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": expected 40 hex digits");
+            }
+            if (separator >= 0 && minCount > 1 && Long.parseLong(line.substring(separator + 1).strip()) < minCount) {
+                continue;
+            }
+            if (previous != null) {
+                int compared = Arrays.compareUnsigned(previous, digest);
+                if (compared == 0) {
+                    continue;
+                }
+                if (compared > 0) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": input is not sorted by hash");
+                }
+            } else {
+                previous = new byte[BreachedPasswordIndex.DIGEST_LENGTH];
+            }
+            System.arraycopy(digest, 0, previous, 0, digest.length);
+            
+            fanout[((digest[0] & 0xFF) << 8) | (digest[1] & 0xFF)]++;
+            if (!buffer.hasRemaining()) {
+                drain(buffer, out);
+            }
+            buffer.put(digest);
+            written++;
+        }
+        drain(buffer, out);
+        
+        // Header and cumulative fan-out table go in front of the records
+        ByteBuffer header = ByteBuffer.allocate((int) BreachedPasswordIndex.DATA_OFFSET);
+        header.put(BreachedPasswordIndex.MAGIC).put(BreachedPasswordIndex.VERSION).put(new byte[3]).putLong(written);
+        long cumulative = 0;
+        for (long count : fanout) {
+            cumulative += count;
+            header.putLong(cumulative);
+        }
+        header.flip();
+        out.position(0);
+        while (header.hasRemaining()) {
+            out.write(header);
+        }
+        return written;
+    }
+    
+    private static void drain(ByteBuffer buffer, FileChannel out) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+    }
+    
+    private static boolean parseHex(String line, int length, byte[] digest) {
+        if (length != digest.length * 2) {
+            return false;
+        }
+        for (int i = 0; i < digest.length; i++) {
+            int high = Character.digit(line.charAt(2 * i), 16);
+            int low = Character.digit(line.charAt(2 * i + 1), 16);
+            if (high < 0 || low < 0) {
+                return false;
+            }
+            digest[i] = (byte) ((high << 4) | low);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,122 @@
+package com.securevault.service;
+
+import com.securevault.entity.PasswordEntry;
+import com.securevault.repository.PasswordRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.SecretKey;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CiphertextMigrationService - Moves stored ciphertexts to the current storage format
+ * 
+ * Encoding: moves Base64 TEXT ciphertexts to the binary ciphertext column.
+ * Runs online in small batches while the application serves requests;
+ * entries are never decrypted by the batch job.
+ * Rows not yet migrated remain readable through the Base64 column.
+ * 
+ * Format: v1 (CBC) entries cannot be re-encrypted without their plaintext,
+ * so they are upgraded to v2 (GCM) lazily, right after a successful reveal.
+ * Progress of both is published as counters (vault.ciphertext.*).
+ */
+@Service
+public class CiphertextMigrationService {
+    
+    private static final Logger log = LoggerFactory.getLogger(CiphertextMigrationService.class);
+    
+    @Autowired
+    private PasswordRepository passwordRepository;
+    
+    @Autowired
+    private CryptoService cryptoService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Value("${vault.migration.batch-size:500}")
+    private int batchSize;
+    
+    private final AtomicLong migrated = new AtomicLong();
+    private final AtomicLong upgraded = new AtomicLong();
+    
+    // ciphertext is not indexed; stop scanning the table once every row has been migrated
+    private volatile boolean complete;
+    
+    @PostConstruct
+    public void registerMetrics() {
+        FunctionCounter.builder("vault.ciphertext.migrated", migrated, AtomicLong::get)
+                .description("Entries moved from the Base64 column to the binary ciphertext column")
+                .register(meterRegistry);
+        FunctionCounter.builder("vault.ciphertext.upgraded", upgraded, AtomicLong::get)
+                .description("Entries re-encrypted from format v1 (CBC) to v2 (GCM) after a reveal")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Migrates one batch of Base64 rows per run
+     */
+    @Scheduled(fixedDelayString = "${vault.migration.interval-ms:5000}")
+    @Transactional
+    public void migrateBatch() {
+        if (complete) {
+            return;
+        }
+        List<PasswordEntry> entries = passwordRepository.findByCiphertextIsNull(PageRequest.of(0, batchSize));
+        if (entries.isEmpty()) {
+            // New rows are always written to the binary column, so nothing is left to migrate until restart
+            complete = true;
+            return;
+        }
+        
+        for (PasswordEntry entry : entries) {
+            entry.setCiphertext(cryptoService.fromBase64Format(
+                    entry.getEncryptedPassword(),
+                    Boolean.TRUE.equals(entry.getEnvelopeEncrypted())));
+            entry.setEncryptedPassword(null);
+            entry.setEnvelopeEncrypted(null);
+        }
+        passwordRepository.saveAll(entries);
+        
+        log.info("Migrated {} entries to binary ciphertext ({} total)", entries.size(), migrated.addAndGet(entries.size()));
+    }
+    
+    /**
+     * Re-encrypts a revealed entry in the current format if it is still in an older one
+     * Failures are logged and never affect the reveal itself
+     * 
+     * @param stored The entry's current ciphertext
+     * @param plaintext The plaintext just decrypted from it
+     */
+    public void upgradeIfNeeded(Long entryId, Long userId, byte[] stored, String plaintext, SecretKey dataKey) {
+        if (cryptoService.isCurrentFormat(stored)) {
+            return;
+        }
+        try {
+            byte[] ciphertext = cryptoService.encrypt(plaintext, dataKey);
+            if (passwordRepository.updateCiphertext(entryId, userId, ciphertext) == 1) {
+                upgraded.incrementAndGet();
+            }
+        } catch (Exception e) {
+            log.warn("Failed to upgrade ciphertext format of entry {}: {}", entryId, e.getMessage());
+        }
+    }
+    
+    public long getMigratedCount() {
+        return migrated.get();
+    }
+    
+    public long getUpgradedCount() {
+        return upgraded.get();
+    }
+}
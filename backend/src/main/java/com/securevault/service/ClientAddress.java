@@ -0,0 +1,45 @@
+package com.securevault.service;
+
+/**
+ * ClientAddress - Client IP of the request being served on the current thread
+ * Set by ClientAddressInterceptor and carried onto request pool threads by {@link #withCurrent}
+ * Behind a reverse proxy, set server.forward-headers-strategy so the remote address is the client's
+ */
+public final class ClientAddress {
+    
+    private static final ThreadLocal<String> ADDRESS = new ThreadLocal<>();
+    
+    private ClientAddress() {
+    }
+    
+    /**
+     * Client IP of the current request, or null outside a request (startup, scheduled jobs)
+     */
+    public static String current() {
+        return ADDRESS.get();
+    }
+    
+    public static void set(String address) {
+        if (address == null) {
+            ADDRESS.remove();
+        } else {
+            ADDRESS.set(address);
+        }
+    }
+    
+    /**
+     * Wraps a task so it runs with the submitting thread's client address
+     */
+    public static Runnable withCurrent(Runnable task) {
+        String address = ADDRESS.get();
+        return () -> {
+            String previous = ADDRESS.get();
+            set(address);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+}
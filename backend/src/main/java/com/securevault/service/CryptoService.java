@@ -5,42 +5,100 @@ import org.springframework.stereotype.Service;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.spec.KeySpec;
+import java.util.Arrays;
 import java.util.Base64;
 
 /**
  * CryptoService - Handles all cryptographic operations
  * 
- * SECURITY LOGIC:
- * 1. Uses PBKDF2 to derive encryption key from master password
- * 2. Uses AES-256-CBC for encrypting/decrypting stored passwords
- * 3. Each encrypted password has unique IV (Initialization Vector)
- * 4. Format: IV (16 bytes) + Salt (16 bytes) + Encrypted Data
- * 5. Never stores encryption keys or plaintext passwords
+ * SECURITY LOGIC (envelope encryption):
+ * 1. Each user has a random AES-256 data key that encrypts their stored passwords
+ * 2. The data key is wrapped with a key derived from the master PIN using PBKDF2
+ * 3. New entries use AES-256-GCM (format v2): encrypted and authenticated in one pass,
+ *    with the header bound as additional authenticated data
+ * 4. Each encrypted password has unique IV (Initialization Vector)
+ * 5. Stored entry format (binary): Header (2 bytes) + format-specific body
+ *    - Header byte 0: format version, byte 1: key source (data key or PIN-derived with salt)
+ *    - v2 (GCM, data key): Nonce (12 bytes) + Encrypted Data + Tag (16 bytes)
+ *    - v1 (CBC, read only): IV (16 bytes) + [Salt (16 bytes)] + Encrypted Data
+ * 6. Wrapped key format (Base64): IV (16 bytes) + Salt (16 bytes) + Encrypted Data
+ * 7. Streams (vault archives) are AES-256-GCM frames under a PBKDF2 key, each frame authenticated
+ * 8. Never stores unwrapped encryption keys or plaintext passwords
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. Cipher and SecretKeyFactory instances are reused per thread instead of looked up per call
+ * 2. One shared SecureRandom (seeded by the platform) generates every IV, salt and key
+ * 3. byte[]-offset and ByteBuffer APIs encrypt/decrypt into caller-owned buffers;
+ *    String APIs convert with explicit UTF-8 and allocate only the result
+ * 4. Streams get their own Cipher, since they outlive the call that opened them
+ * 5. PBKDF2 and the String encrypt/decrypt calls are timed as request stages (StageMetrics)
  */
 @Service
 public class CryptoService {
     
     private static final String ALGORITHM = "AES/CBC/PKCS5Padding";
+    private static final String GCM_ALGORITHM = "AES/GCM/NoPadding";
     private static final String KEY_ALGORITHM = "AES";
+    private static final String KDF_ALGORITHM = "PBKDF2WithHmacSHA256";
     private static final int KEY_LENGTH = 256;
     private static final int ITERATION_COUNT = 65536;
     private static final int SALT_LENGTH = 16;
     private static final int IV_LENGTH = 16;
+    private static final int GCM_NONCE_LENGTH = 12;
+    private static final int GCM_TAG_LENGTH = 16;
+    
+    private static final int HEADER_LENGTH = 2;
+    private static final byte FORMAT_CBC = 1;
+    private static final byte FORMAT_GCM = 2;
+    private static final byte KEY_SOURCE_PIN = 0;
+    private static final byte KEY_SOURCE_DATA_KEY = 1;
+    private static final byte[] GCM_HEADER = {FORMAT_GCM, KEY_SOURCE_DATA_KEY};
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final ThreadLocal<Cipher> CIPHER = ThreadLocal.withInitial(() -> newCipher(ALGORITHM));
+    private static final ThreadLocal<Cipher> GCM_CIPHER = ThreadLocal.withInitial(() -> newCipher(GCM_ALGORITHM));
+    private static final ThreadLocal<SecretKeyFactory> KEY_FACTORY = ThreadLocal.withInitial(CryptoService::newKeyFactory);
+    private static final ThreadLocal<byte[]> IV_BUFFER = ThreadLocal.withInitial(() -> new byte[IV_LENGTH]);
+    private static final ThreadLocal<byte[]> NONCE_BUFFER = ThreadLocal.withInitial(() -> new byte[GCM_NONCE_LENGTH]);
+    private static final ThreadLocal<byte[]> PLAINTEXT_BUFFER = ThreadLocal.withInitial(() -> new byte[256]);
+    
+    private final KdfExecutor kdfExecutor;
+    private final StageMetrics stageMetrics;
+    
+    public CryptoService(KdfExecutor kdfExecutor, StageMetrics stageMetrics) {
+        this.kdfExecutor = kdfExecutor;
+        this.stageMetrics = stageMetrics;
+    }
     
     /**
-     * Encrypts a password using AES-256
-     * Derives encryption key from master password using PBKDF2
+     * Generates a new random AES-256 data key for a user
+     */
+    public SecretKey generateDataKey() {
+        byte[] keyBytes = new byte[KEY_LENGTH / 8];
+        RANDOM.nextBytes(keyBytes);
+        return new SecretKeySpec(keyBytes, KEY_ALGORITHM);
+    }
+    
+    /**
+     * Wraps a data key with a key derived from the master PIN using PBKDF2
      * 
-     * @param plaintext The password to encrypt
-     * @param masterPassword The master password to derive encryption key
-     * @return Base64 encoded string containing IV + Salt + Encrypted data
+     * @param dataKey The data key to wrap
+     * @param masterPassword The master password to derive the wrapping key
+     * @return Base64 encoded string containing IV + Salt + Encrypted key
      */
-    public String encrypt(String plaintext, String masterPassword) throws Exception {
+    public String wrapDataKey(SecretKey dataKey, String masterPassword) throws Exception {
         // Generate random salt for PBKDF2
         byte[] salt = generateSalt();
         
@@ -49,12 +107,11 @@ public class CryptoService {
         
         // Generate random IV for AES
         byte[] iv = generateIV();
-        IvParameterSpec ivSpec = new IvParameterSpec(iv);
         
-        // Encrypt the plaintext
-        Cipher cipher = Cipher.getInstance(ALGORITHM);
-        cipher.init(Cipher.ENCRYPT_MODE, key, ivSpec);
-        byte[] encrypted = cipher.doFinal(plaintext.getBytes());
+        // Encrypt the data key
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        byte[] encrypted = cipher.doFinal(dataKey.getEncoded());
         
         // Combine IV + Salt + Encrypted data
         byte[] combined = new byte[IV_LENGTH + SALT_LENGTH + encrypted.length];
@@ -62,51 +119,290 @@ public class CryptoService {
         System.arraycopy(salt, 0, combined, IV_LENGTH, SALT_LENGTH);
         System.arraycopy(encrypted, 0, combined, IV_LENGTH + SALT_LENGTH, encrypted.length);
         
-        // Return as Base64 encoded string
         return Base64.getEncoder().encodeToString(combined);
     }
     
     /**
-     * Decrypts an encrypted password using AES-256
-     * Derives encryption key from master password using PBKDF2
+     * Unwraps a data key previously wrapped with {@link #wrapDataKey}
+     * Costs one PBKDF2 derivation
      * 
-     * @param encryptedData Base64 encoded string containing IV + Salt + Encrypted data
-     * @param masterPassword The master password to derive encryption key
+     * @param wrappedKey Base64 encoded string containing IV + Salt + Encrypted key
+     * @param masterPassword The master password to derive the wrapping key
+     * @return The unwrapped data key
+     */
+    public SecretKey unwrapDataKey(String wrappedKey, String masterPassword) throws Exception {
+        byte[] combined = Base64.getDecoder().decode(wrappedKey);
+        byte[] salt = Arrays.copyOfRange(combined, IV_LENGTH, IV_LENGTH + SALT_LENGTH);
+        
+        SecretKey key = deriveKey(masterPassword, salt);
+        
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(combined, 0, IV_LENGTH));
+        byte[] keyBytes = cipher.doFinal(combined, IV_LENGTH + SALT_LENGTH, combined.length - IV_LENGTH - SALT_LENGTH);
+        
+        return new SecretKeySpec(keyBytes, KEY_ALGORITHM);
+    }
+    
+    /**
+     * Encrypts a password using AES-256-GCM with the user's data key (format v2)
+     * No key derivation is performed
+     * 
+     * @param plaintext The password to encrypt
+     * @param dataKey The user's unwrapped data key
+     * @return Header + Nonce + Encrypted data + Tag, written into a single array
+     */
+    public byte[] encrypt(String plaintext, SecretKey dataKey) throws Exception {
+        return stageMetrics.time("cipher.encrypt", () -> {
+            byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+            byte[] stored = new byte[encryptedLength(input.length)];
+            encrypt(input, 0, input.length, dataKey, stored, 0);
+            return stored;
+        });
+    }
+    
+    /**
+     * Encrypts plaintext bytes with the user's data key into a caller-owned array (format v2)
+     * 
+     * @param out Must have {@link #encryptedLength} bytes free from outOffset
+     * @return Number of bytes written (Header + Nonce + Encrypted data + Tag)
+     */
+    public int encrypt(byte[] plaintext, int offset, int length, SecretKey dataKey,
+                       byte[] out, int outOffset) throws GeneralSecurityException {
+        out[outOffset] = FORMAT_GCM;
+        out[outOffset + 1] = KEY_SOURCE_DATA_KEY;
+        byte[] nonce = NONCE_BUFFER.get();
+        RANDOM.nextBytes(nonce);
+        System.arraycopy(nonce, 0, out, outOffset + HEADER_LENGTH, GCM_NONCE_LENGTH);
+        
+        Cipher cipher = GCM_CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, nonce));
+        cipher.updateAAD(out, outOffset, HEADER_LENGTH);
+        return HEADER_LENGTH + GCM_NONCE_LENGTH
+                + cipher.doFinal(plaintext, offset, length, out, outOffset + HEADER_LENGTH + GCM_NONCE_LENGTH);
+    }
+    
+    /**
+     * Encrypts the remaining plaintext bytes with the user's data key into the output buffer (format v2)
+     * 
+     * @return Number of bytes written (Header + Nonce + Encrypted data + Tag)
+     */
+    public int encrypt(ByteBuffer plaintext, SecretKey dataKey, ByteBuffer out) throws GeneralSecurityException {
+        byte[] nonce = NONCE_BUFFER.get();
+        RANDOM.nextBytes(nonce);
+        Cipher cipher = GCM_CIPHER.get();
+        cipher.init(Cipher.ENCRYPT_MODE, dataKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, nonce));
+        cipher.updateAAD(GCM_HEADER);
+        
+        out.put(FORMAT_GCM).put(KEY_SOURCE_DATA_KEY).put(nonce);
+        return HEADER_LENGTH + GCM_NONCE_LENGTH + cipher.doFinal(plaintext, out);
+    }
+    
+    /**
+     * Size of a stored entry for a plaintext of the given length
+     */
+    public int encryptedLength(int plaintextLength) {
+        return HEADER_LENGTH + GCM_NONCE_LENGTH + plaintextLength + GCM_TAG_LENGTH;
+    }
+    
+    /**
+     * Decrypts a stored entry encrypted with the user's data key (format v1 or v2)
+     * Reads nonce/IV and ciphertext by offset, without copying the stored bytes;
+     * decrypts into a per-thread buffer that is zeroed once the String is built
+     * 
+     * @param stored Header + format-specific body
+     * @param dataKey The user's unwrapped data key
      * @return Decrypted plaintext password
      */
-    public String decrypt(String encryptedData, String masterPassword) throws Exception {
-        // Decode from Base64
-        byte[] combined = Base64.getDecoder().decode(encryptedData);
+    public String decrypt(byte[] stored, SecretKey dataKey) throws Exception {
+        return stageMetrics.time("cipher.decrypt", () -> {
+            byte[] plaintext = PLAINTEXT_BUFFER.get();
+            if (plaintext.length < stored.length) {
+                plaintext = new byte[stored.length];
+                PLAINTEXT_BUFFER.set(plaintext);
+            }
+            int length = decrypt(stored, 0, stored.length, dataKey, plaintext, 0);
+            try {
+                return new String(plaintext, 0, length, StandardCharsets.UTF_8);
+            } finally {
+                Arrays.fill(plaintext, 0, length, (byte) 0);
+            }
+        });
+    }
+    
+    /**
+     * Decrypts a stored entry encrypted with the user's data key into a caller-owned array
+     * The format is read from the header
+     * 
+     * @param out Must have at least length bytes free from outOffset
+     * @return Number of plaintext bytes written
+     */
+    public int decrypt(byte[] stored, int offset, int length, SecretKey dataKey,
+                       byte[] out, int outOffset) throws GeneralSecurityException {
+        if (length >= HEADER_LENGTH + GCM_NONCE_LENGTH + GCM_TAG_LENGTH
+                && stored[offset] == FORMAT_GCM && stored[offset + 1] == KEY_SOURCE_DATA_KEY) {
+            int dataOffset = offset + HEADER_LENGTH + GCM_NONCE_LENGTH;
+            Cipher cipher = GCM_CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, dataKey,
+                    new GCMParameterSpec(GCM_TAG_LENGTH * 8, stored, offset + HEADER_LENGTH, GCM_NONCE_LENGTH));
+            cipher.updateAAD(stored, offset, HEADER_LENGTH);
+            return cipher.doFinal(stored, dataOffset, offset + length - dataOffset, out, outOffset);
+        }
         
-        // Extract IV, Salt, and Encrypted data
-        byte[] iv = new byte[IV_LENGTH];
-        byte[] salt = new byte[SALT_LENGTH];
-        byte[] encrypted = new byte[combined.length - IV_LENGTH - SALT_LENGTH];
+        checkHeader(stored, offset, length, KEY_SOURCE_DATA_KEY);
         
-        System.arraycopy(combined, 0, iv, 0, IV_LENGTH);
-        System.arraycopy(combined, IV_LENGTH, salt, 0, SALT_LENGTH);
-        System.arraycopy(combined, IV_LENGTH + SALT_LENGTH, encrypted, 0, encrypted.length);
+        int dataOffset = offset + HEADER_LENGTH + IV_LENGTH;
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, dataKey, new IvParameterSpec(stored, offset + HEADER_LENGTH, IV_LENGTH));
+        return cipher.doFinal(stored, dataOffset, offset + length - dataOffset, out, outOffset);
+    }
+    
+    /**
+     * Decrypts the remaining bytes of a stored entry encrypted with the user's data key into the output buffer
+     * The format is read from the header
+     * 
+     * @return Number of plaintext bytes written
+     */
+    public int decrypt(ByteBuffer stored, SecretKey dataKey, ByteBuffer out) throws GeneralSecurityException {
+        if (stored.remaining() < HEADER_LENGTH + GCM_NONCE_LENGTH + GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("Unsupported ciphertext format");
+        }
+        byte format = stored.get();
+        if (stored.get() != KEY_SOURCE_DATA_KEY) {
+            throw new IllegalArgumentException("Unsupported ciphertext format");
+        }
+        
+        if (format == FORMAT_GCM) {
+            byte[] nonce = NONCE_BUFFER.get();
+            stored.get(nonce);
+            Cipher cipher = GCM_CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, dataKey, new GCMParameterSpec(GCM_TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(GCM_HEADER);
+            return cipher.doFinal(stored, out);
+        }
+        if (format != FORMAT_CBC) {
+            throw new IllegalArgumentException("Unsupported ciphertext format");
+        }
+        
+        byte[] iv = IV_BUFFER.get();
+        stored.get(iv);
+        Cipher cipher = CIPHER.get();
+        cipher.init(Cipher.DECRYPT_MODE, dataKey, new IvParameterSpec(iv));
+        return cipher.doFinal(stored, out);
+    }
+    
+    /**
+     * Decrypts a legacy stored entry whose key is derived from the master PIN using PBKDF2
+     * 
+     * @param stored Header + IV + Salt + Encrypted data
+     * @param masterPassword The master password to derive encryption key
+     * @return Decrypted plaintext password
+     */
+    public String decrypt(byte[] stored, String masterPassword) throws Exception {
+        checkHeader(stored, 0, stored.length, KEY_SOURCE_PIN);
+        
+        // PBEKeySpec takes its own copy of the salt, so only the salt is sliced out
+        int saltOffset = HEADER_LENGTH + IV_LENGTH;
+        int dataOffset = saltOffset + SALT_LENGTH;
+        byte[] salt = Arrays.copyOfRange(stored, saltOffset, dataOffset);
         
         // Derive encryption key from master password using PBKDF2
         SecretKey key = deriveKey(masterPassword, salt);
         
-        // Decrypt the data
-        IvParameterSpec ivSpec = new IvParameterSpec(iv);
-        Cipher cipher = Cipher.getInstance(ALGORITHM);
-        cipher.init(Cipher.DECRYPT_MODE, key, ivSpec);
-        byte[] decrypted = cipher.doFinal(encrypted);
-        
-        return new String(decrypted);
+        return stageMetrics.time("cipher.decrypt", () -> {
+            Cipher cipher = CIPHER.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(stored, HEADER_LENGTH, IV_LENGTH));
+            byte[] decrypted = cipher.doFinal(stored, dataOffset, stored.length - dataOffset);
+            
+            return new String(decrypted, StandardCharsets.UTF_8);
+        });
+    }
+    
+    /**
+     * Returns true if the stored entry is encrypted with the user's data key,
+     * false if its key is derived from the master PIN
+     */
+    public boolean isDataKeyEncrypted(byte[] stored) {
+        return stored.length > 1 && stored[1] == KEY_SOURCE_DATA_KEY;
+    }
+    
+    /**
+     * Returns true if the stored entry is in the current format (v2, GCM with the data key)
+     * Older entries should be re-encrypted once their plaintext is available
+     */
+    public boolean isCurrentFormat(byte[] stored) {
+        return stored.length > 1 && stored[0] == FORMAT_GCM && stored[1] == KEY_SOURCE_DATA_KEY;
+    }
+    
+    /**
+     * Converts a Base64 TEXT ciphertext from before the binary format to the binary format
+     * 
+     * @param encryptedData Base64 of IV + Encrypted data, or IV + Salt + Encrypted data for legacy entries
+     * @param dataKeyEncrypted Whether the entry was encrypted with the user's data key
+     * @return Header + the decoded bytes
+     */
+    public byte[] fromBase64Format(String encryptedData, boolean dataKeyEncrypted) {
+        byte[] decoded = Base64.getDecoder().decode(encryptedData);
+        byte[] stored = new byte[HEADER_LENGTH + decoded.length];
+        stored[0] = FORMAT_CBC;
+        stored[1] = dataKeyEncrypted ? KEY_SOURCE_DATA_KEY : KEY_SOURCE_PIN;
+        System.arraycopy(decoded, 0, stored, HEADER_LENGTH, decoded.length);
+        return stored;
+    }
+    
+    /**
+     * Opens an encrypting stream keyed from the master password
+     * Writes Salt (16 bytes) to the output, then the AES-256-GCM frames of GcmFrameOutputStream;
+     * associatedData (e.g. a file header) is authenticated with every frame
+     * Closing the returned stream writes the final frame and closes the output
+     */
+    public OutputStream encryptingStream(OutputStream out, String masterPassword, byte[] associatedData)
+            throws Exception {
+        byte[] salt = generateSalt();
+        SecretKey key = deriveKey(masterPassword, salt);
+        out.write(salt);
+        return new GcmFrameOutputStream(out, key, associatedData, RANDOM);
+    }
+    
+    /**
+     * Reads the salt written by {@link #encryptingStream} and derives the stream key (one PBKDF2)
+     */
+    public SecretKey readStreamKey(InputStream in, String masterPassword) throws Exception {
+        byte[] salt = in.readNBytes(SALT_LENGTH);
+        if (salt.length != SALT_LENGTH) {
+            throw new IllegalArgumentException("Unsupported ciphertext format");
+        }
+        return deriveKey(masterPassword, salt);
+    }
+    
+    /**
+     * Skips the salt of a stream whose key was already derived by {@link #readStreamKey}
+     */
+    public void skipStreamKey(InputStream in) throws IOException {
+        in.skipNBytes(SALT_LENGTH);
+    }
+    
+    /**
+     * Opens a decrypting stream for the frames that follow the salt
+     * Reading fails with an IOException on a wrong key, tampering or truncation
+     */
+    public InputStream decryptingStream(InputStream in, SecretKey streamKey, byte[] associatedData) throws Exception {
+        return new GcmFrameInputStream(in, streamKey, associatedData);
+    }
+    
+    private void checkHeader(byte[] stored, int offset, int length, byte expectedKeySource) {
+        if (length < HEADER_LENGTH + IV_LENGTH || stored[offset] != FORMAT_CBC || stored[offset + 1] != expectedKeySource) {
+            throw new IllegalArgumentException("Unsupported ciphertext format");
+        }
     }
     
     /**
      * Derives encryption key from master password using PBKDF2
-     * Uses 65536 iterations for security
+     * Uses 65536 iterations for security; runs on the bounded KDF pool
+     * The pbkdf2 stage includes time queued for a KDF worker (see vault.kdf.queue.wait)
      */
     private SecretKey deriveKey(String masterPassword, byte[] salt) throws Exception {
-        SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
         KeySpec spec = new PBEKeySpec(masterPassword.toCharArray(), salt, ITERATION_COUNT, KEY_LENGTH);
-        SecretKey tmp = factory.generateSecret(spec);
+        SecretKey tmp = stageMetrics.time("pbkdf2", () -> kdfExecutor.call(() -> KEY_FACTORY.get().generateSecret(spec)));
         return new SecretKeySpec(tmp.getEncoded(), KEY_ALGORITHM);
     }
     
@@ -115,7 +411,7 @@ public class CryptoService {
      */
     private byte[] generateSalt() {
         byte[] salt = new byte[SALT_LENGTH];
-        new SecureRandom().nextBytes(salt);
+        RANDOM.nextBytes(salt);
         return salt;
     }
     
@@ -124,7 +420,23 @@ public class CryptoService {
      */
     private byte[] generateIV() {
         byte[] iv = new byte[IV_LENGTH];
-        new SecureRandom().nextBytes(iv);
+        RANDOM.nextBytes(iv);
         return iv;
     }
+    
+    private static Cipher newCipher(String algorithm) {
+        try {
+            return Cipher.getInstance(algorithm);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(algorithm + " is not available", e);
+        }
+    }
+    
+    private static SecretKeyFactory newKeyFactory() {
+        try {
+            return SecretKeyFactory.getInstance(KDF_ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(KDF_ALGORITHM + " is not available", e);
+        }
+    }
 }
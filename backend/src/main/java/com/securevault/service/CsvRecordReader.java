@@ -0,0 +1,105 @@
+package com.securevault.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CsvRecordReader - Reads RFC 4180 style CSV one record at a time
+ * Supports quoted fields containing commas, line breaks and escaped quotes ("")
+ * Fields and records are bounded: an oversized record (e.g. an unterminated quote) is skipped
+ * without buffering it and reported with RecordTooLongException
+ */
+class CsvRecordReader {
+    
+    private final BufferedReader reader;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+    
+    CsvRecordReader(Reader reader, int maxFieldLength, int maxRecordLength) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+    }
+    
+    /**
+     * Returns the next record's fields, or null at end of input
+     * 
+     * @throws RecordTooLongException if a field or the record exceeds its limit; the record has been
+     *         consumed, so reading continues with the next one
+     */
+    List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+        boolean readAny = false;
+        long recordLength = 0;
+        String tooLong = null;
+        
+        int c;
+        while ((c = reader.read()) != -1) {
+            readAny = true;
+            if (tooLong == null && ++recordLength > maxRecordLength) {
+                tooLong = "record is longer than " + maxRecordLength + " characters";
+                fields.clear();
+                field.setLength(0);
+            }
+            if (tooLong != null) {
+                // Only track quoting to find the end of the record
+                if (c == '"') {
+                    inQuotes = !inQuotes;
+                } else if (c == '\n' && !inQuotes) {
+                    break;
+                }
+                continue;
+            }
+            if (inQuotes) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        inQuotes = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            if (field.length() > maxFieldLength) {
+                tooLong = "field is longer than " + maxFieldLength + " characters";
+                fields.clear();
+                field.setLength(0);
+            }
+        }
+        
+        if (!readAny) {
+            return null;
+        }
+        if (tooLong != null) {
+            throw new RecordTooLongException(tooLong);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    static final class RecordTooLongException extends IOException {
+        RecordTooLongException(String message) {
+            super(message);
+        }
+    }
+}
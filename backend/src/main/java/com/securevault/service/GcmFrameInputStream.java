@@ -0,0 +1,132 @@
+package com.securevault.service;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+
+import static com.securevault.service.GcmFrameOutputStream.FINAL_FRAME;
+import static com.securevault.service.GcmFrameOutputStream.FRAME_SIZE;
+import static com.securevault.service.GcmFrameOutputStream.MAX_FRAMES;
+import static com.securevault.service.GcmFrameOutputStream.NONCE_LENGTH;
+import static com.securevault.service.GcmFrameOutputStream.NONCE_PREFIX_LENGTH;
+import static com.securevault.service.GcmFrameOutputStream.TAG_LENGTH;
+
+/**
+ * GcmFrameInputStream - Decrypts a stream written by GcmFrameOutputStream
+ * 
+ * SECURITY LOGIC:
+ * 1. A frame's plaintext is returned only after its tag verifies
+ * 2. End of stream is reported only after the final frame, with nothing after it;
+ *    a wrong key, tampering, truncation or trailing data fails with an IOException
+ */
+final class GcmFrameInputStream extends InputStream {
+    
+    private final DataInputStream in;
+    private final SecretKey key;
+    private final byte[] associatedData;
+    private final Cipher cipher;
+    private final byte[] nonce = new byte[NONCE_LENGTH];
+    private final byte[] frame = new byte[FRAME_SIZE];
+    private final byte[] sealed = new byte[FRAME_SIZE + TAG_LENGTH];
+    private int position;
+    private int length;
+    private long frames;
+    private boolean last;
+    
+    GcmFrameInputStream(InputStream in, SecretKey key, byte[] associatedData)
+            throws GeneralSecurityException, IOException {
+        this.in = new DataInputStream(in);
+        this.key = key;
+        this.associatedData = associatedData.clone();
+        this.cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        readFully(nonce, NONCE_PREFIX_LENGTH);
+    }
+    
+    @Override
+    public int read() throws IOException {
+        while (position == length) {
+            if (!nextFrame()) {
+                return -1;
+            }
+        }
+        return frame[position++] & 0xFF;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (position == length) {
+            if (!nextFrame()) {
+                return -1;
+            }
+        }
+        int chunk = Math.min(len, length - position);
+        System.arraycopy(frame, position, b, off, chunk);
+        position += chunk;
+        return chunk;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(frame, (byte) 0);
+        in.close();
+    }
+    
+    private boolean nextFrame() throws IOException {
+        if (last) {
+            if (in.read() != -1) {
+                throw new IOException("Unexpected data after the end of the stream");
+            }
+            return false;
+        }
+        if (frames == MAX_FRAMES) {
+            throw new IOException("Stream is too long");
+        }
+        
+        int header;
+        try {
+            header = in.readInt();
+        } catch (EOFException e) {
+            throw new IOException("Stream is truncated");
+        }
+        boolean finalFrame = (header & FINAL_FRAME) != 0;
+        int sealedLength = header & ~FINAL_FRAME;
+        if (sealedLength < TAG_LENGTH || sealedLength > sealed.length) {
+            throw new IOException("Stream is corrupted");
+        }
+        readFully(sealed, sealedLength);
+        
+        try {
+            GcmFrameOutputStream.setFrameNumber(nonce, frames);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(associatedData);
+            cipher.updateAAD(new byte[] {(byte) (finalFrame ? 1 : 0)});
+            length = cipher.doFinal(sealed, 0, sealedLength, frame, 0);
+        } catch (AEADBadTagException e) {
+            throw new IOException("Stream failed authentication (wrong key or tampered data)");
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to decrypt stream", e);
+        }
+        position = 0;
+        frames++;
+        last = finalFrame;
+        return true;
+    }
+    
+    private void readFully(byte[] buffer, int count) throws IOException {
+        try {
+            in.readFully(buffer, 0, count);
+        } catch (EOFException e) {
+            throw new IOException("Stream is truncated");
+        }
+    }
+}
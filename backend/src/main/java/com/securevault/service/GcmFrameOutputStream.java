@@ -0,0 +1,130 @@
+package com.securevault.service;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+/**
+ * GcmFrameOutputStream - Encrypts a stream as a sequence of AES-256-GCM frames
+ * 
+ * STREAM FORMAT:
+ * 1. Nonce prefix (8 random bytes)
+ * 2. Frames: length (4 bytes, high bit set on the final frame) + ciphertext and tag of up to FRAME_SIZE bytes
+ * 
+ * SECURITY LOGIC:
+ * 1. Each frame is authenticated on its own, so a reader never releases unauthenticated plaintext
+ * 2. Frame nonce = prefix + frame number: frames cannot be dropped, repeated or reordered
+ * 3. The caller's associated data and the final flag are bound into every tag: the stream cannot be
+ *    truncated at a frame boundary or spliced into another stream
+ * 
+ * Only close() writes the final frame; a stream abandoned without it fails to read back.
+ */
+final class GcmFrameOutputStream extends OutputStream {
+    
+    static final int FRAME_SIZE = 64 * 1024;
+    static final int NONCE_PREFIX_LENGTH = 8;
+    static final int NONCE_LENGTH = 12;
+    static final int TAG_LENGTH = 16;
+    static final int FINAL_FRAME = 0x80000000;
+    static final long MAX_FRAMES = 0xFFFFFFFFL;
+    
+    private final DataOutputStream out;
+    private final SecretKey key;
+    private final byte[] associatedData;
+    private final Cipher cipher;
+    private final byte[] nonce = new byte[NONCE_LENGTH];
+    private final byte[] frame = new byte[FRAME_SIZE];
+    private final byte[] sealed = new byte[FRAME_SIZE + TAG_LENGTH];
+    private int length;
+    private long frames;
+    private boolean closed;
+    
+    GcmFrameOutputStream(OutputStream out, SecretKey key, byte[] associatedData, SecureRandom random)
+            throws GeneralSecurityException, IOException {
+        this.out = new DataOutputStream(out);
+        this.key = key;
+        this.associatedData = associatedData.clone();
+        this.cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        byte[] prefix = new byte[NONCE_PREFIX_LENGTH];
+        random.nextBytes(prefix);
+        System.arraycopy(prefix, 0, nonce, 0, NONCE_PREFIX_LENGTH);
+        this.out.write(prefix);
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        if (length == FRAME_SIZE) {
+            writeFrame(false);
+        }
+        frame[length++] = (byte) b;
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            // A full frame is only sealed once more data arrives, since the last frame must be marked final
+            if (length == FRAME_SIZE) {
+                writeFrame(false);
+            }
+            int chunk = Math.min(len, FRAME_SIZE - length);
+            System.arraycopy(b, off, frame, length, chunk);
+            length += chunk;
+            off += chunk;
+            len -= chunk;
+        }
+    }
+    
+    /**
+     * Flushes sealed frames only; buffered plaintext waits for its frame to fill or for close()
+     */
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writeFrame(true);
+            out.flush();
+        } finally {
+            Arrays.fill(frame, (byte) 0);
+            out.close();
+        }
+    }
+    
+    private void writeFrame(boolean last) throws IOException {
+        if (frames == MAX_FRAMES) {
+            throw new IOException("Stream is too long");
+        }
+        try {
+            setFrameNumber(nonce, frames);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH * 8, nonce));
+            cipher.updateAAD(associatedData);
+            cipher.updateAAD(new byte[] {(byte) (last ? 1 : 0)});
+            int sealedLength = cipher.doFinal(frame, 0, length, sealed, 0);
+            out.writeInt(last ? sealedLength | FINAL_FRAME : sealedLength);
+            out.write(sealed, 0, sealedLength);
+        } catch (GeneralSecurityException e) {
+            throw new IOException("Failed to encrypt stream", e);
+        }
+        frames++;
+        length = 0;
+    }
+    
+    static void setFrameNumber(byte[] nonce, long frame) {
+        for (int i = 0; i < 4; i++) {
+            nonce[NONCE_PREFIX_LENGTH + i] = (byte) (frame >>> (24 - 8 * i));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.securevault.service;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * JwtKeyRing - ES256 key pairs for signing access tokens, identified by key id (kid)
+ * 
+ * SECURITY LOGIC:
+ * 1. Keys are read from jwt.keys.dir: <kid>.pub.pem (X.509 public key) and <kid>.key.pem (PKCS#8 private key);
+ *    a key without its private half only verifies (e.g. one retired from another node)
+ * 2. jwt.keys.active-kid signs new tokens; every other key in the directory still verifies,
+ *    so keys rotate with overlap: publish the new key, switch active-kid, drop the old key once
+ *    its last access token has expired (jwt.access-ttl-seconds)
+ * 3. Public keys are published as a JWKS, so edge services verify tokens without holding any secret
+ * 4. An empty directory gets a generated key pair; without a directory an in-memory pair is used
+ *    (development only: tokens do not survive a restart and other nodes cannot verify them)
+ */
+@Component
+public class JwtKeyRing {
+    
+    private static final Logger log = LoggerFactory.getLogger(JwtKeyRing.class);
+    
+    private static final String PUBLIC_SUFFIX = ".pub.pem";
+    private static final String PRIVATE_SUFFIX = ".key.pem";
+    private static final Pattern KEY_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+    // P-256 coordinates are 32 bytes
+    private static final int COORDINATE_LENGTH = 32;
+    
+    private final Map<String, PublicKey> publicKeys = new LinkedHashMap<>();
+    private final String activeKeyId;
+    private final PrivateKey signingKey;
+    
+    public JwtKeyRing(@Value("${jwt.keys.dir:}") String keysDir,
+                      @Value("${jwt.keys.active-kid:}") String activeKeyId) throws IOException {
+        Map<String, PrivateKey> privateKeys = new LinkedHashMap<>();
+        if (keysDir.isBlank()) {
+            String keyId = generatedKeyId();
+            KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+            publicKeys.put(keyId, keyPair.getPublic());
+            privateKeys.put(keyId, keyPair.getPrivate());
+            log.warn("jwt.keys.dir is not set; signing with in-memory key {} (development only)", keyId);
+        } else {
+            Path dir = Path.of(keysDir);
+            load(dir, privateKeys);
+            if (publicKeys.isEmpty()) {
+                String keyId = generatedKeyId();
+                write(dir, keyId, Keys.keyPairFor(SignatureAlgorithm.ES256));
+                load(dir, privateKeys);
+                log.info("Generated JWT signing key {} in {}", keyId, dir.toAbsolutePath());
+            }
+        }
+        
+        // Without an explicit choice the ring must be unambiguous: exactly one signing key
+        if (activeKeyId.isBlank()) {
+            if (privateKeys.size() != 1) {
+                throw new IllegalStateException("Set jwt.keys.active-kid to one of " + privateKeys.keySet());
+            }
+            activeKeyId = privateKeys.keySet().iterator().next();
+        }
+        this.signingKey = privateKeys.get(activeKeyId);
+        if (signingKey == null) {
+            throw new IllegalStateException("No private key for jwt.keys.active-kid " + activeKeyId);
+        }
+        this.activeKeyId = activeKeyId;
+    }
+    
+    public String getActiveKeyId() {
+        return activeKeyId;
+    }
+    
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+    
+    /**
+     * Public key for a token's kid header, or empty if the key is unknown (not yet published or retired)
+     */
+    public Optional<PublicKey> getVerificationKey(String keyId) {
+        return keyId == null ? Optional.empty() : Optional.ofNullable(publicKeys.get(keyId));
+    }
+    
+    /**
+     * All verification keys as a JWK Set (RFC 7517)
+     */
+    public Map<String, Object> toJwks() {
+        List<Map<String, String>> keys = new ArrayList<>();
+        publicKeys.forEach((keyId, key) -> {
+            ECPublicKey ecKey = (ECPublicKey) key;
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", keyId);
+            jwk.put("x", coordinate(ecKey.getW().getAffineX()));
+            jwk.put("y", coordinate(ecKey.getW().getAffineY()));
+            keys.add(jwk);
+        });
+        return Map.of("keys", keys);
+    }
+    
+    private void load(Path dir, Map<String, PrivateKey> privateKeys) throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.sorted().toList();
+        }
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(PUBLIC_SUFFIX)) {
+                    String keyId = keyId(name, PUBLIC_SUFFIX);
+                    publicKeys.put(keyId, keyFactory.generatePublic(new X509EncodedKeySpec(readPem(file))));
+                } else if (name.endsWith(PRIVATE_SUFFIX)) {
+                    String keyId = keyId(name, PRIVATE_SUFFIX);
+                    privateKeys.put(keyId, keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(file))));
+                }
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid JWT key in " + dir.toAbsolutePath() + ": " + e.getMessage(), e);
+        }
+        for (String keyId : privateKeys.keySet()) {
+            if (!publicKeys.containsKey(keyId)) {
+                throw new IllegalStateException("Missing " + keyId + PUBLIC_SUFFIX + " in " + dir.toAbsolutePath());
+            }
+        }
+    }
+    
+    private static void write(Path dir, String keyId, KeyPair keyPair) throws IOException {
+        Path privateFile = dir.resolve(keyId + PRIVATE_SUFFIX);
+        // Created owner-only before the key is written, so it is never readable by group or other
+        if (privateFile.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createFile(privateFile, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            // Not a POSIX file system; rely on the directory's permissions
+            Files.createFile(privateFile);
+        }
+        Files.writeString(privateFile, pem("PRIVATE KEY", keyPair.getPrivate().getEncoded()));
+        Files.writeString(dir.resolve(keyId + PUBLIC_SUFFIX), pem("PUBLIC KEY", keyPair.getPublic().getEncoded()));
+    }
+    
+    private static String keyId(String fileName, String suffix) {
+        String keyId = fileName.substring(0, fileName.length() - suffix.length());
+        if (!KEY_ID.matcher(keyId).matches()) {
+            throw new IllegalArgumentException("invalid key id " + keyId);
+        }
+        return keyId;
+    }
+    
+    private static String generatedKeyId() {
+        byte[] suffix = new byte[3];
+        ThreadLocalRandom.current().nextBytes(suffix);
+        return LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "-" + HexFormat.of().formatHex(suffix);
+    }
+    
+    private static byte[] readPem(Path file) throws IOException {
+        String body = Files.readString(file, StandardCharsets.US_ASCII)
+                .replaceAll("-----(BEGIN|END) [A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(body);
+    }
+    
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder(64, "\n".getBytes(StandardCharsets.US_ASCII)).encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+    
+    // Unsigned big-endian, left-padded to the curve size, base64url without padding
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_LENGTH];
+        int length = Math.min(bytes.length, COORDINATE_LENGTH);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_LENGTH - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+}
@@ -0,0 +1,18 @@
+package com.securevault.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * JwtPrincipal - Verified contents of a JWT token
+ */
+@Data
+@AllArgsConstructor
+public class JwtPrincipal {
+    private String username;
+    private Long userId;
+    private String sessionId;
+    private Date expiresAt;
+}
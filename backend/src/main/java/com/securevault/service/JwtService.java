@@ -1,88 +1,119 @@
 package com.securevault.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
+import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * JwtService - Handles JWT token generation and validation
+ * Access tokens are short-lived and carry the session id (sid) they were issued for,
+ * so a whole session can be revoked; sessions are renewed with refresh tokens
  * 
- * SECURITY NOTE: In production, use a strong secret key from environment variables
+ * Tokens are signed with ES256 by the key ring's active key and name it in the kid header;
+ * verification picks the public key by kid, so tokens signed before a key rotation stay valid
  */
 @Service
 public class JwtService {
     
-    private final SecretKey SECRET_KEY;
-    private static final long EXPIRATION_TIME = 86400000; // 24 hours
+    private final JwtKeyRing keyRing;
+    private final long expirationMillis;
     
-    public JwtService(@Value("${jwt.secret:ThisIsADefaultSecretKeyForDevelopmentOnlyPleaseChangeInProduction}") String secret) {
-        // Use provided secret or generate one for development
-        if (secret.length() < 32) {
-            secret = "ThisIsADefaultSecretKeyForDevelopmentOnlyPleaseChangeInProduction";
-        }
-        this.SECRET_KEY = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    // Built once; JwtParser is immutable and thread-safe
+    private final JwtParser parser;
+    
+    private final VerifiedTokenCache verifiedTokenCache;
+    
+    public JwtService(JwtKeyRing keyRing,
+                      @Value("${jwt.access-ttl-seconds:900}") long accessTtlSeconds,
+                      VerifiedTokenCache verifiedTokenCache) {
+        this.keyRing = keyRing;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Only ES256 is accepted; a token naming another algorithm never reaches a key
+                        if (!SignatureAlgorithm.ES256.getValue().equals(header.getAlgorithm())) {
+                            throw new SignatureException("Unexpected algorithm " + header.getAlgorithm());
+                        }
+                        return keyRing.getVerificationKey(header.getKeyId())
+                                .orElseThrow(() -> new SignatureException("Unknown key id " + header.getKeyId()));
+                    }
+                })
+                .build();
+        this.expirationMillis = accessTtlSeconds * 1000;
+        this.verifiedTokenCache = verifiedTokenCache;
     }
     
     /**
-     * Generates JWT token for authenticated user
+     * Generates an access token for the user's session
      */
-    public String generateToken(String username, Long userId) {
+    public String generateToken(String username, Long userId, String sessionId) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("userId", userId);
+        claims.put("sid", sessionId);
         
         return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, keyRing.getActiveKeyId())
                 .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .signWith(SECRET_KEY)
+                .setExpiration(new Date(System.currentTimeMillis() + expirationMillis))
+                .signWith(keyRing.getSigningKey(), SignatureAlgorithm.ES256)
                 .compact();
     }
     
     /**
-     * Extracts username from JWT token
+     * Verifies a JWT token and decodes its claims in a single parse
+     * Recently verified tokens are served from the cache without re-checking the signature
+     * 
+     * @return The token's principal, or empty if the token is invalid or expired
      */
-    public String extractUsername(String token) {
-        return extractClaims(token).getSubject();
+    public Optional<JwtPrincipal> verify(String token) {
+        Optional<JwtPrincipal> cached = verifiedTokenCache.get(token);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        
+        try {
+            // Signature and expiry are both checked by the parser
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            String sessionId = claims.get("sid", String.class);
+            if (sessionId == null) {
+                // Issued before sessions existed; cannot be revoked, so it is not accepted
+                return Optional.empty();
+            }
+            JwtPrincipal principal = new JwtPrincipal(
+                    claims.getSubject(),
+                    claims.get("userId", Long.class),
+                    sessionId,
+                    claims.getExpiration());
+            verifiedTokenCache.put(token, principal);
+            return Optional.of(principal);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
     }
     
-    /**
-     * Extracts user ID from JWT token
-     */
-    public Long extractUserId(String token) {
-        return extractClaims(token).get("userId", Long.class);
+    public long getAccessTtlSeconds() {
+        return expirationMillis / 1000;
     }
     
     /**
      * Validates JWT token
      */
     public boolean validateToken(String token) {
-        try {
-            extractClaims(token);
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
-    }
-    
-    private Claims extractClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
-    private boolean isTokenExpired(String token) {
-        return extractClaims(token).getExpiration().before(new Date());
+        return verify(token).isPresent();
     }
 }
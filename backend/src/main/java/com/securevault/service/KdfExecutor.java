@@ -0,0 +1,104 @@
+package com.securevault.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * KdfExecutor - Runs CPU-heavy hashing (BCrypt, PBKDF2) on a dedicated bounded pool
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. Pool is sized to the core count, so hashing never oversubscribes the CPU
+ * 2. Waiting work sits in a fixed-size queue; when it is full the call fails fast
+ *    with KdfPoolSaturatedException (429 + Retry-After) instead of tying up a request thread
+ * 3. Queue depth, active workers, queue wait time and rejections are published as metrics
+ */
+@Component
+public class KdfExecutor {
+    
+    private static final String THREAD_PREFIX = "kdf-";
+    
+    private final ThreadPoolExecutor pool;
+    private final long retryAfterSeconds;
+    private final Timer queueWait;
+    private final Counter rejected;
+    
+    public KdfExecutor(@Value("${vault.kdf.pool-size:0}") int poolSize,
+                       @Value("${vault.kdf.queue-capacity:64}") int queueCapacity,
+                       @Value("${vault.kdf.retry-after-seconds:1}") long retryAfterSeconds,
+                       MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, THREAD_PREFIX + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+        
+        Gauge.builder("vault.kdf.queue.depth", pool, p -> p.getQueue().size())
+                .description("Hashing tasks waiting for a KDF worker")
+                .register(meterRegistry);
+        Gauge.builder("vault.kdf.active", pool, ThreadPoolExecutor::getActiveCount)
+                .description("KDF workers currently hashing")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("vault.kdf.queue.wait")
+                .description("Time hashing tasks spend queued before a KDF worker picks them up")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("vault.kdf.rejected")
+                .description("Hashing tasks rejected because the KDF queue was full")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Runs the task on the KDF pool and waits for its result
+     * Runs inline if already on a KDF worker
+     * 
+     * @throws KdfPoolSaturatedException if the wait queue is full
+     */
+    public <T> T call(Callable<T> task) throws Exception {
+        if (Thread.currentThread().getName().startsWith(THREAD_PREFIX)) {
+            return task.call();
+        }
+        
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = pool.submit(() -> {
+                queueWait.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+                return task.call();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new KdfPoolSaturatedException(retryAfterSeconds);
+        }
+        
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : new RuntimeException(cause);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
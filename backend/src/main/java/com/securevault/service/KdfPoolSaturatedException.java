@@ -0,0 +1,12 @@
+package com.securevault.service;
+
+/**
+ * Thrown when the KDF worker pool's wait queue is full
+ * Mapped to 429 Too Many Requests with a Retry-After header
+ */
+public class KdfPoolSaturatedException extends TooManyRequestsException {
+    
+    public KdfPoolSaturatedException(long retryAfterSeconds) {
+        super("Server busy, please retry later", retryAfterSeconds);
+    }
+}
@@ -0,0 +1,12 @@
+package com.securevault.service;
+
+/**
+ * Upload exceeds its configured size limit
+ * Mapped to 413 Payload Too Large; services rethrow it past their generic catch blocks
+ */
+public class PayloadTooLargeException extends RuntimeException {
+    
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
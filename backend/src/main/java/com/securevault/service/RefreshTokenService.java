@@ -0,0 +1,164 @@
+package com.securevault.service;
+
+import com.securevault.entity.RefreshToken;
+import com.securevault.repository.RefreshTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * RefreshTokenService - Issues, rotates and revokes refresh tokens
+ * 
+ * SECURITY LOGIC:
+ * 1. Refresh tokens and session ids are 256-bit random values; only the SHA-256 digest of a refresh token is stored
+ * 2. Every refresh consumes the presented token and issues a successor in the same session (rotation)
+ * 3. Presenting a consumed token again means it was copied: the whole session is revoked
+ * 4. Revoking a session deletes its refresh tokens and puts its id on the SessionRevocationList
+ *    until its last access token has expired
+ * 
+ * PERFORMANCE LOGIC:
+ * 5. A refresh costs one digest, a primary key lookup and two small writes, no BCrypt
+ */
+@Service
+public class RefreshTokenService {
+    
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+    
+    private static final int TOKEN_LENGTH = 32;
+    
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SessionRevocationList sessionRevocationList;
+    private final TransactionTemplate transactionTemplate;
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long refreshTtlSeconds;
+    private final long accessTtlSeconds;
+    
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               SessionRevocationList sessionRevocationList,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${jwt.refresh-ttl-seconds:1209600}") long refreshTtlSeconds,
+                               @Value("${jwt.access-ttl-seconds:900}") long accessTtlSeconds) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.sessionRevocationList = sessionRevocationList;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.refreshTtlSeconds = refreshTtlSeconds;
+        this.accessTtlSeconds = accessTtlSeconds;
+    }
+    
+    /**
+     * Starts a new session for the user
+     */
+    public SessionTokens open(Long userId) {
+        String sessionId = randomToken();
+        return transactionTemplate.execute(status -> new SessionTokens(userId, sessionId, issue(userId, sessionId)));
+    }
+    
+    /**
+     * Consumes a refresh token and issues its successor
+     * 
+     * @throws RuntimeException if the token is unknown, expired or was already used (the session is then revoked)
+     */
+    public SessionTokens rotate(String refreshToken) {
+        String tokenHash = digest(refreshToken);
+        SessionTokens rotated = transactionTemplate.execute(status -> {
+            RefreshToken current = refreshTokenRepository.findById(tokenHash).orElse(null);
+            if (current == null || current.getExpiresAt().isBefore(LocalDateTime.now())) {
+                return null;
+            }
+            if (refreshTokenRepository.markUsed(tokenHash) == 0) {
+                // Replay of a consumed token; handled after this transaction
+                return new SessionTokens(current.getUserId(), current.getFamilyId(), null);
+            }
+            return new SessionTokens(current.getUserId(), current.getFamilyId(),
+                    issue(current.getUserId(), current.getFamilyId()));
+        });
+        
+        if (rotated == null) {
+            throw new RuntimeException("Invalid refresh token");
+        }
+        if (rotated.getRefreshToken() == null) {
+            log.warn("Refresh token reused, revoking session of user {}", rotated.getUserId());
+            revokeSession(rotated.getUserId(), rotated.getSessionId());
+            throw new RuntimeException("Invalid refresh token");
+        }
+        return rotated;
+    }
+    
+    /**
+     * Ends the session the refresh token belongs to; unknown tokens are ignored
+     */
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findById(digest(refreshToken))
+                .ifPresent(token -> revokeSession(token.getUserId(), token.getFamilyId()));
+    }
+    
+    /**
+     * Ends every session of the user, including the one making the request
+     */
+    public void revokeAll(Long userId, String currentSessionId) {
+        List<String> sessionIds = new ArrayList<>(refreshTokenRepository.findFamilyIds(userId));
+        if (!sessionIds.contains(currentSessionId)) {
+            sessionIds.add(currentSessionId);
+        }
+        sessionIds.forEach(sessionId -> revokeSession(userId, sessionId));
+    }
+    
+    /**
+     * Drops refresh tokens past their expiry
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-sweep-interval-ms:3600000}")
+    public void deleteExpired() {
+        Integer removed = transactionTemplate.execute(status ->
+                refreshTokenRepository.deleteExpired(LocalDateTime.now()));
+        if (removed != null && removed > 0) {
+            log.info("Removed {} expired refresh tokens", removed);
+        }
+    }
+    
+    public long getRefreshTtlSeconds() {
+        return refreshTtlSeconds;
+    }
+    
+    private void revokeSession(Long userId, String sessionId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            refreshTokenRepository.deleteFamily(sessionId);
+            sessionRevocationList.revoke(sessionId, userId, LocalDateTime.now().plusSeconds(accessTtlSeconds));
+        });
+    }
+    
+    private String issue(Long userId, String sessionId) {
+        String token = randomToken();
+        refreshTokenRepository.save(new RefreshToken(digest(token), sessionId, userId, false,
+                LocalDateTime.now().plusSeconds(refreshTtlSeconds)));
+        return token;
+    }
+    
+    private String randomToken() {
+        byte[] bytes = new byte[TOKEN_LENGTH];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.securevault.service;
+
+import com.securevault.entity.RevokedSession;
+import com.securevault.repository.RevokedSessionRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * SessionRevocationList - Revoked session ids, checked for every authenticated request
+ * 
+ * SECURITY LOGIC:
+ * 1. Revocations are written to revoked_sessions and kept until the session's last access token expires
+ * 2. Every node reloads the table on a fixed interval, so a revocation on one node reaches the others
+ *    (and survives a restart) within vault.revocation.reload-interval-ms
+ * 
+ * PERFORMANCE LOGIC:
+ * 3. A Bloom filter answers the common "not revoked" case with a few bit reads, no lock and no database hit
+ * 4. Only filter hits (revoked sessions and rare false positives) consult the exact in-memory map
+ * 5. Bloom filters cannot forget, so each reload builds a fresh filter from the live entries and swaps it in
+ */
+@Component
+public class SessionRevocationList {
+    
+    private final RevokedSessionRepository revokedSessionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+    
+    // Session id -> epoch millis after which the entry is no longer needed
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    
+    public SessionRevocationList(RevokedSessionRepository revokedSessionRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${vault.revocation.expected-entries:100000}") int expectedEntries,
+                                 @Value("${vault.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                                 MeterRegistry meterRegistry) {
+        this.revokedSessionRepository = revokedSessionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+        Gauge.builder("vault.revocation.sessions", revoked, Map::size)
+                .description("Revoked sessions whose access tokens may still be presented")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Lock-free unless the session id hits the filter
+     */
+    public boolean isRevoked(String sessionId) {
+        if (!filter.mightContain(sessionId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(sessionId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+    
+    /**
+     * Revokes a session until the given time; must run inside the caller's transaction so the row
+     * commits together with the refresh token deletion
+     * The in-memory list only takes the session once that transaction commits, so a rollback
+     * cannot leave a session revoked on this node but not in the database
+     */
+    public void revoke(String sessionId, Long userId, LocalDateTime expiresAt) {
+        revokedSessionRepository.save(new RevokedSession(sessionId, userId, expiresAt));
+        long expiresAtMillis = toEpochMillis(expiresAt);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            add(sessionId, expiresAtMillis);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                add(sessionId, expiresAtMillis);
+            }
+        });
+    }
+    
+    /**
+     * Reloads revocations from the database and rebuilds the filter without expired entries
+     */
+    @PostConstruct
+    @Scheduled(initialDelayString = "${vault.revocation.reload-interval-ms:30000}",
+               fixedDelayString = "${vault.revocation.reload-interval-ms:30000}")
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            revokedSessionRepository.deleteExpired(now);
+            for (RevokedSession session : revokedSessionRepository.findActive(now)) {
+                revoked.putIfAbsent(session.getSessionId(), toEpochMillis(session.getExpiresAt()));
+            }
+        });
+        
+        long nowMillis = toEpochMillis(now);
+        synchronized (this) {
+            revoked.values().removeIf(expiresAt -> expiresAt <= nowMillis);
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedEntries, revoked.size()), falsePositiveRate);
+            revoked.keySet().forEach(rebuilt::put);
+            filter = rebuilt;
+        }
+    }
+    
+    public int size() {
+        return revoked.size();
+    }
+    
+    // Serialized with reload, so an id added while a filter is rebuilt cannot miss the swapped-in one
+    private synchronized void add(String sessionId, long expiresAt) {
+        revoked.put(sessionId, expiresAt);
+        filter.put(sessionId);
+    }
+    
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+    
+    /**
+     * Fixed-size Bloom filter over strings; concurrent puts and reads need no lock
+     * Bit positions come from double hashing (h1 + i * h2) of one 64-bit FNV-1a hash
+     */
+    private static final class BloomFilter {
+        
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (ln2 * ln2));
+            this.bits = Math.max(64, (optimalBits + 63) / 64 * 64);
+            this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * ln2));
+            this.words = new AtomicLongArray((int) (bits / 64));
+        }
+        
+        void put(String value) {
+            long hash = hash(value);
+            for (int i = 0; i < hashes; i++) {
+                long bit = index(hash, i);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current = words.get(word);
+                while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                    current = words.get(word);
+                }
+            }
+        }
+        
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            for (int i = 0; i < hashes; i++) {
+                long bit = index(hash, i);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        private long index(long hash, int i) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            return Math.floorMod(h1 + (long) i * h2, bits);
+        }
+        
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b;
+                hash *= 0x100000001b3L;
+            }
+            // Final avalanche, so both halves are usable as independent hashes
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return hash;
+        }
+    }
+}
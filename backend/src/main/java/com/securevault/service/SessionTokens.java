@@ -0,0 +1,15 @@
+package com.securevault.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * SessionTokens - A session and its current refresh token (raw, to be handed to the client once)
+ */
+@Data
+@AllArgsConstructor
+public class SessionTokens {
+    private Long userId;
+    private String sessionId;
+    private String refreshToken;
+}
@@ -0,0 +1,121 @@
+package com.securevault.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StageMetrics - Latency timers for the stages of a request (JWT, BCrypt, PBKDF2, cipher ops)
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. One timer name (vault.stage) tagged by stage, endpoint and outcome, with a percentile histogram
+ * 2. The endpoint is the matched route pattern (e.g. /vault/show/{id}), held in a thread-local that is
+ *    carried onto pool threads by {@link #withCurrentEndpoint}
+ * 3. Timers are cached per (stage, endpoint), so recording allocates nothing once a route is warm
+ */
+@Component
+public class StageMetrics {
+    
+    public static final String METER_NAME = "vault.stage";
+    public static final String NO_ENDPOINT = "none";
+    
+    private static final ThreadLocal<String> ENDPOINT = new ThreadLocal<>();
+    
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, Timer[]>> timers = new ConcurrentHashMap<>();
+    
+    public StageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+    
+    /**
+     * Route pattern of the request being served on this thread, or "none" (startup, scheduled jobs)
+     */
+    public static String currentEndpoint() {
+        String endpoint = ENDPOINT.get();
+        return endpoint != null ? endpoint : NO_ENDPOINT;
+    }
+    
+    public static void setCurrentEndpoint(String endpoint) {
+        if (endpoint == null) {
+            ENDPOINT.remove();
+        } else {
+            ENDPOINT.set(endpoint);
+        }
+    }
+    
+    /**
+     * Wraps a task so it runs with the submitting thread's endpoint (used as a TaskDecorator)
+     */
+    public static Runnable withCurrentEndpoint(Runnable task) {
+        String endpoint = ENDPOINT.get();
+        return () -> {
+            String previous = ENDPOINT.get();
+            setCurrentEndpoint(endpoint);
+            try {
+                task.run();
+            } finally {
+                setCurrentEndpoint(previous);
+            }
+        };
+    }
+    
+    /**
+     * Times one stage, tagged with the current endpoint and whether it completed normally
+     */
+    public <T> T time(String stage, Callable<T> work) throws Exception {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.call();
+            success = true;
+            return result;
+        } finally {
+            record(stage, currentEndpoint(), success, System.nanoTime() - start);
+        }
+    }
+    
+    /**
+     * Same as {@link #time} for work that cannot throw checked exceptions
+     */
+    public <T> T timeUnchecked(String stage, Callable<T> work) {
+        try {
+            return time(stage, work);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * Records a stage measured by the caller (e.g. before the endpoint was known)
+     */
+    public void record(String stage, String endpoint, boolean success, long nanos) {
+        Timer[] byOutcome = timers
+                .computeIfAbsent(stage, s -> new ConcurrentHashMap<>())
+                .get(endpoint);
+        if (byOutcome == null) {
+            byOutcome = timers.get(stage).computeIfAbsent(endpoint, e -> new Timer[] {
+                    timer(stage, e, "success"),
+                    timer(stage, e, "error")
+            });
+        }
+        byOutcome[success ? 0 : 1].record(nanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer timer(String stage, String endpoint, String outcome) {
+        return Timer.builder(METER_NAME)
+                .description("Latency of one stage of a request")
+                .tag("stage", stage)
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
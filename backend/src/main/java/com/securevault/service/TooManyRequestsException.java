@@ -0,0 +1,19 @@
+package com.securevault.service;
+
+/**
+ * Base of the fail-fast overload rejections (KDF pool full, attempts throttled)
+ * Mapped to 429 Too Many Requests with a Retry-After header; services rethrow it past their generic catch blocks
+ */
+public abstract class TooManyRequestsException extends RuntimeException {
+    
+    private final long retryAfterSeconds;
+    
+    protected TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+    
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,173 @@
+package com.securevault.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UnlockSessionStore - Holds unwrapped data keys for short-lived vault unlock sessions
+ * 
+ * SECURITY LOGIC:
+ * 1. Handles are 256-bit random values, bound to the user that created them
+ * 2. Sessions expire after a fixed TTL and the store is bounded (oldest evicted first)
+ * 3. Key material is zeroized whenever a session is evicted or expires
+ * 4. Nothing is persisted; a restart locks every vault
+ * 
+ * Hits, misses, evictions and live sessions are published as vault.unlock.* meters.
+ */
+@Component
+public class UnlockSessionStore {
+    
+    private static final int HANDLE_LENGTH = 32;
+    
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final long ttlMillis;
+    private final int maxSessions;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    // Insertion-ordered, so the eldest entry is always the next to expire
+    private final LinkedHashMap<String, Session> sessions = new LinkedHashMap<>();
+    
+    public UnlockSessionStore(@Value("${vault.unlock.ttl-seconds:300}") long ttlSeconds,
+                              @Value("${vault.unlock.max-sessions:10000}") int maxSessions,
+                              MeterRegistry meterRegistry) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.maxSessions = maxSessions;
+        
+        FunctionCounter.builder("vault.unlock.hits", hits, AtomicLong::get)
+                .description("Unlock token lookups that found a live session")
+                .register(meterRegistry);
+        FunctionCounter.builder("vault.unlock.misses", misses, AtomicLong::get)
+                .description("Unlock token lookups for an unknown, foreign or expired session")
+                .register(meterRegistry);
+        FunctionCounter.builder("vault.unlock.evictions", evictions, AtomicLong::get)
+                .description("Unlock sessions removed on expiry or when the store is full")
+                .register(meterRegistry);
+        Gauge.builder("vault.unlock.sessions", this, UnlockSessionStore::size)
+                .description("Live unlock sessions")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Opens a new unlock session for the given user's data key
+     * 
+     * @return Opaque handle identifying the session
+     */
+    public String open(Long userId, SecretKey dataKey) {
+        byte[] handleBytes = new byte[HANDLE_LENGTH];
+        secureRandom.nextBytes(handleBytes);
+        String handle = Base64.getUrlEncoder().withoutPadding().encodeToString(handleBytes);
+        
+        Session session = new Session(userId, dataKey.getEncoded(), System.currentTimeMillis() + ttlMillis);
+        synchronized (sessions) {
+            sessions.put(handle, session);
+            while (sessions.size() > maxSessions) {
+                Iterator<Session> eldest = sessions.values().iterator();
+                eldest.next().destroy();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return handle;
+    }
+    
+    /**
+     * Returns the data key for a live session owned by the given user
+     */
+    public Optional<SecretKey> get(String handle, Long userId) {
+        synchronized (sessions) {
+            Session session = sessions.get(handle);
+            if (session == null || !session.userId.equals(userId)) {
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            if (session.isExpired(System.currentTimeMillis())) {
+                sessions.remove(handle).destroy();
+                evictions.incrementAndGet();
+                misses.incrementAndGet();
+                return Optional.empty();
+            }
+            hits.incrementAndGet();
+            return Optional.of(new SecretKeySpec(session.key, "AES"));
+        }
+    }
+    
+    /**
+     * Periodically removes expired sessions so idle key material does not linger
+     */
+    @Scheduled(fixedDelayString = "${vault.unlock.sweep-interval-ms:30000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        synchronized (sessions) {
+            Iterator<Map.Entry<String, Session>> it = sessions.entrySet().iterator();
+            while (it.hasNext()) {
+                Session session = it.next().getValue();
+                if (!session.isExpired(now)) {
+                    break;
+                }
+                session.destroy();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+    
+    public long getTtlSeconds() {
+        return ttlMillis / 1000;
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+    
+    public int size() {
+        synchronized (sessions) {
+            return sessions.size();
+        }
+    }
+    
+    private static final class Session {
+        private final Long userId;
+        private final byte[] key;
+        private final long expiresAt;
+        
+        private Session(Long userId, byte[] key, long expiresAt) {
+            this.userId = userId;
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+        
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+        
+        private void destroy() {
+            Arrays.fill(key, (byte) 0);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.securevault.service;
+
+import com.securevault.dto.ImportRecord;
+import com.securevault.dto.ImportResponse;
+import com.securevault.entity.PasswordEntry;
+import com.securevault.repository.PasswordRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.crypto.SecretKey;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * VaultArchiveService - Streams encrypted vault backups out and back in
+ * 
+ * ARCHIVE FORMAT (version 2):
+ * 1. Magic "SVLT" (4 bytes) + Version (1 byte), in clear
+ * 2. Salt (16 bytes) for a key derived from the master PIN using PBKDF2
+ * 3. Body as authenticated AES-256-GCM frames (see GcmFrameOutputStream), with magic and version bound
+ *    into every tag: per entry a 1 marker byte + appName, appUsername, password (modified UTF-8),
+ *    then a 0 marker byte + entry count (8 bytes)
+ * 
+ * SECURITY LOGIC:
+ * 1. A wrong PIN, a tampered or truncated archive fails authentication instead of decrypting to garbage
+ * 2. Restore is all or nothing: the upload is spooled to a temporary file (still encrypted) and
+ *    read to its end once to verify every frame and the entry count before any entry is written;
+ *    uploads over vault.archive.max-bytes are rejected while spooling
+ * 
+ * Entries are read through a database cursor and written one at a time,
+ * so memory use does not depend on vault size in either direction.
+ */
+@Service
+public class VaultArchiveService {
+    
+    private static final Logger log = LoggerFactory.getLogger(VaultArchiveService.class);
+    private static final byte VERSION = 2;
+    private static final byte[] HEADER = {'S', 'V', 'L', 'T', VERSION};
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    @Autowired
+    private PasswordRepository passwordRepository;
+    
+    @Autowired
+    private CryptoService cryptoService;
+    
+    @Autowired
+    private VaultService vaultService;
+    
+    @Autowired
+    private VaultImportService vaultImportService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${vault.archive.max-bytes:268435456}")
+    private long maxArchiveBytes;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public VaultArchiveService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Verifies the master PIN and returns a body that streams the user's archive
+     * CRITICAL: The PIN is verified before any response is written
+     */
+    public StreamingResponseBody exportArchive(Long userId, String masterPin) {
+        SecretKey dataKey;
+        try {
+            dataKey = vaultService.resolveDataKey(userId, masterPin, null);
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to export vault: " + e.getMessage());
+        }
+        return out -> writeArchive(userId, dataKey, masterPin, out);
+    }
+    
+    /**
+     * Restores entries from an archive into the user's vault
+     * The whole archive is verified first; entries are then re-encrypted with the user's data key
+     * and written through the import pipeline
+     */
+    public ImportResponse restoreArchive(Long userId, InputStream input, String masterPin) {
+        Path spooled = null;
+        try {
+            SecretKey dataKey = vaultService.resolveDataKey(userId, masterPin, null);
+            
+            spooled = Files.createTempFile("securevault-restore", ".svlt");
+            spool(input, spooled);
+            
+            // Pass 1: authenticate every frame and check the trailer; nothing is written yet
+            SecretKey archiveKey;
+            try (InputStream in = openArchive(spooled)) {
+                archiveKey = cryptoService.readStreamKey(in, masterPin);
+                VaultImportService.RecordSource source = archiveSource(archiveBody(in, archiveKey));
+                while (source.next() != null) {
+                    // Records are only parsed
+                }
+            }
+            
+            // Pass 2: import the verified archive with the key derived in pass 1
+            try (InputStream in = openArchive(spooled)) {
+                cryptoService.skipStreamKey(in);
+                return vaultImportService.importRecords(userId, dataKey, archiveSource(archiveBody(in, archiveKey)));
+            }
+        } catch (TooManyRequestsException | PayloadTooLargeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to restore vault: " + e.getMessage());
+        } finally {
+            if (spooled != null) {
+                try {
+                    Files.deleteIfExists(spooled);
+                } catch (IOException e) {
+                    log.warn("Failed to delete restore file {}", spooled);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Copies the upload to the spool file, failing once it exceeds vault.archive.max-bytes
+     * so an upload cannot fill the temporary directory before it is verified
+     */
+    private void spool(InputStream input, Path file) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(file)) {
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                total += read;
+                if (total > maxArchiveBytes) {
+                    throw new PayloadTooLargeException("Archive is larger than " + maxArchiveBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+    }
+    
+    /**
+     * Opens a spooled archive and checks its magic and version
+     */
+    private InputStream openArchive(Path file) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE);
+        if (!Arrays.equals(in.readNBytes(HEADER.length), HEADER)) {
+            in.close();
+            throw new RuntimeException("Unsupported archive format");
+        }
+        return in;
+    }
+    
+    private DataInputStream archiveBody(InputStream in, SecretKey archiveKey) throws Exception {
+        return new DataInputStream(
+                new BufferedInputStream(cryptoService.decryptingStream(in, archiveKey, HEADER), BUFFER_SIZE));
+    }
+    
+    private void writeArchive(Long userId, SecretKey dataKey, String masterPin, OutputStream out) throws IOException {
+        out.write(HEADER);
+        
+        try (DataOutputStream body = new DataOutputStream(
+                new BufferedOutputStream(cryptoService.encryptingStream(out, masterPin, HEADER), BUFFER_SIZE))) {
+            long count = readOnlyTransaction.execute(status -> {
+                try (Stream<PasswordEntry> entries = passwordRepository.streamByUserIdOrderById(userId)) {
+                    long written = 0;
+                    Iterator<PasswordEntry> it = entries.iterator();
+                    while (it.hasNext()) {
+                        PasswordEntry entry = it.next();
+                        body.writeByte(1);
+                        body.writeUTF(entry.getAppName());
+                        body.writeUTF(entry.getAppUsername());
+                        body.writeUTF(vaultService.decryptEntry(entry, dataKey, masterPin));
+                        entityManager.detach(entry);
+                        written++;
+                    }
+                    return written;
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to export vault: " + e.getMessage(), e);
+                }
+            });
+            body.writeByte(0);
+            body.writeLong(count);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to export vault", e);
+        }
+    }
+    
+    private VaultImportService.RecordSource archiveSource(DataInputStream body) {
+        long[] read = {0};
+        return () -> {
+            try {
+                byte marker = body.readByte();
+                if (marker == 0) {
+                    // Reading past the trailer also checks the final frame and that nothing follows it
+                    if (body.readLong() != read[0] || body.read() != -1) {
+                        throw new IOException("Archive is corrupted");
+                    }
+                    return null;
+                }
+                if (marker != 1) {
+                    throw new IOException("Archive is corrupted");
+                }
+                read[0]++;
+                return new ImportRecord(body.readUTF(), body.readUTF(), body.readUTF());
+            } catch (EOFException e) {
+                throw new IOException("Archive is truncated");
+            }
+        };
+    }
+}
@@ -0,0 +1,255 @@
+package com.securevault.service;
+
+import com.securevault.dto.AuditFinding;
+import com.securevault.dto.PasswordEntrySummary;
+import com.securevault.dto.VaultAuditResponse;
+import com.securevault.entity.PasswordEntry;
+import com.securevault.repository.PasswordRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * VaultAuditService - Finds reused and weak passwords in a user's vault
+ * 
+ * SECURITY LOGIC:
+ * 1. The master PIN (or unlock session) is verified once, before any decryption
+ * 2. Reuse is found by comparing HMAC-SHA256 digests under a random key generated for this audit only;
+ *    the key is never stored, so the digests cannot be compared across audits or guessed offline
+ * 3. Each plaintext is decrypted into a per-task buffer, checked (including against the breached-password
+ *    corpus) and zeroed right away; the report carries entry ids and reasons, never a password
+ * 
+ * PERFORMANCE LOGIC:
+ * 4. Entries are decrypted with the unwrapped data key (one AES-GCM pass each, no per-entry PBKDF2),
+ *    in chunks on the bounded crypto pool
+ * 5. Legacy PIN-keyed entries still need one PBKDF2 each; they are only audited when the PIN is sent
+ */
+@Service
+public class VaultAuditService {
+    
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+    // Entries per pool task: large enough to amortize scheduling, small enough to spread a vault over all cores
+    private static final int CHUNK_SIZE = 32;
+    private static final int MIN_LENGTH = 12;
+    private static final int MIN_CHARACTER_TYPES = 3;
+    private static final String BREACHED = "Found in a data breach";
+    
+    @Autowired
+    private PasswordRepository passwordRepository;
+    
+    @Autowired
+    private CryptoService cryptoService;
+    
+    @Autowired
+    private VaultService vaultService;
+    
+    @Autowired
+    private BreachedPasswordChecker breachedPasswordChecker;
+    
+    @Autowired
+    @Qualifier("cryptoExecutor")
+    private Executor cryptoExecutor;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final TransactionTemplate readOnlyTransaction;
+    
+    public VaultAuditService(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+    
+    /**
+     * Audits every entry of the user's vault
+     * With an unlock token the PIN itself is not available, so legacy PIN-keyed entries are skipped
+     */
+    public VaultAuditResponse audit(Long userId, String masterPin, String unlockToken) {
+        SecretKey dataKey;
+        SecretKey digestKey;
+        try {
+            // CRITICAL: Verify master PIN (or unlock session) once, before any decryption
+            dataKey = vaultService.resolveDataKey(userId, masterPin, unlockToken);
+            digestKey = KeyGenerator.getInstance(DIGEST_ALGORITHM).generateKey();
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to audit vault: " + e.getMessage());
+        }
+        String legacyPin = unlockToken == null ? masterPin : null;
+        
+        List<AuditedEntry> entries = readOnlyTransaction.execute(status -> {
+            try (Stream<PasswordEntry> rows = passwordRepository.streamByUserIdOrderById(userId)) {
+                return rows.map(entry -> {
+                    AuditedEntry audited = new AuditedEntry(
+                            new PasswordEntrySummary(entry.getId(), entry.getAppName(), entry.getAppUsername()),
+                            vaultService.storedCiphertext(entry));
+                    entityManager.detach(entry);
+                    return audited;
+                }).collect(Collectors.toList());
+            }
+        });
+        
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < entries.size(); from += CHUNK_SIZE) {
+            List<AuditedEntry> chunk = entries.subList(from, Math.min(from + CHUNK_SIZE, entries.size()));
+            chunks.add(CompletableFuture.runAsync(() -> auditChunk(chunk, dataKey, legacyPin, digestKey), cryptoExecutor));
+        }
+        chunks.forEach(CompletableFuture::join);
+        
+        return report(entries);
+    }
+    
+    private void auditChunk(List<AuditedEntry> chunk, SecretKey dataKey, String masterPin, SecretKey digestKey) {
+        Mac mac;
+        try {
+            mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+        } catch (GeneralSecurityException e) {
+            chunk.forEach(entry -> entry.error = "Failed to audit password");
+            return;
+        }
+        
+        byte[] plaintext = new byte[256];
+        for (AuditedEntry entry : chunk) {
+            byte[] stored = entry.ciphertext;
+            if (plaintext.length < stored.length) {
+                plaintext = new byte[stored.length];
+            }
+            try {
+                int length;
+                if (cryptoService.isDataKeyEncrypted(stored)) {
+                    length = cryptoService.decrypt(stored, 0, stored.length, dataKey, plaintext, 0);
+                } else if (masterPin != null) {
+                    byte[] legacy = cryptoService.decrypt(stored, masterPin).getBytes(StandardCharsets.UTF_8);
+                    if (plaintext.length < legacy.length) {
+                        plaintext = new byte[legacy.length];
+                    }
+                    length = legacy.length;
+                    System.arraycopy(legacy, 0, plaintext, 0, length);
+                    Arrays.fill(legacy, (byte) 0);
+                } else {
+                    entry.error = "Master PIN is required for this entry";
+                    continue;
+                }
+                mac.update(plaintext, 0, length);
+                entry.digest = ByteBuffer.wrap(mac.doFinal());
+                entry.weaknesses = weaknesses(plaintext, length);
+                if (breachedPasswordChecker.isBreached(plaintext, 0, length)) {
+                    entry.weaknesses.add(0, BREACHED);
+                }
+            } catch (Exception e) {
+                entry.error = "Failed to decrypt password";
+            } finally {
+                Arrays.fill(plaintext, (byte) 0);
+            }
+        }
+    }
+    
+    /**
+     * Reasons a password is weak, read from its UTF-8 bytes; empty if none
+     * Every non-ASCII character counts as a symbol
+     */
+    static List<String> weaknesses(byte[] password, int length) {
+        int characters = 0;
+        int types = 0;
+        // Characters equal to, or one step from, the previous one: "aaaa", "1234", "cba"
+        int predictable = 0;
+        int previous = -1;
+        for (int i = 0; i < length; i++) {
+            int b = password[i] & 0xFF;
+            if ((b & 0xC0) == 0x80) {
+                // UTF-8 continuation byte
+                continue;
+            }
+            characters++;
+            if (b >= 'a' && b <= 'z') {
+                types |= 1;
+            } else if (b >= 'A' && b <= 'Z') {
+                types |= 2;
+            } else if (b >= '0' && b <= '9') {
+                types |= 4;
+            } else {
+                types |= 8;
+            }
+            if (previous >= 0 && b < 0x80 && Math.abs(b - previous) <= 1) {
+                predictable++;
+            }
+            previous = b < 0x80 ? b : -1;
+        }
+        
+        List<String> reasons = new ArrayList<>();
+        if (characters < MIN_LENGTH) {
+            reasons.add("Shorter than " + MIN_LENGTH + " characters");
+        }
+        if (Integer.bitCount(types) < MIN_CHARACTER_TYPES) {
+            reasons.add("Fewer than " + MIN_CHARACTER_TYPES + " character types");
+        }
+        if (characters > 1 && predictable * 2 >= characters) {
+            reasons.add("Mostly repeated or sequential characters");
+        }
+        return reasons;
+    }
+    
+    private static VaultAuditResponse report(List<AuditedEntry> entries) {
+        Map<ByteBuffer, List<PasswordEntrySummary>> byDigest = new LinkedHashMap<>();
+        List<AuditFinding> weak = new ArrayList<>();
+        List<AuditFinding> skipped = new ArrayList<>();
+        for (AuditedEntry entry : entries) {
+            if (entry.digest == null) {
+                skipped.add(finding(entry.summary, List.of(entry.error)));
+                continue;
+            }
+            byDigest.computeIfAbsent(entry.digest, digest -> new ArrayList<>()).add(entry.summary);
+            if (!entry.weaknesses.isEmpty()) {
+                weak.add(finding(entry.summary, entry.weaknesses));
+            }
+        }
+        
+        List<List<PasswordEntrySummary>> reused = byDigest.values().stream()
+                .filter(group -> group.size() > 1)
+                .collect(Collectors.toList());
+        return new VaultAuditResponse(entries.size(), entries.size() - skipped.size(), reused, weak, skipped);
+    }
+    
+    private static AuditFinding finding(PasswordEntrySummary summary, List<String> reasons) {
+        return new AuditFinding(summary.getId(), summary.getAppName(), summary.getAppUsername(), reasons);
+    }
+    
+    /**
+     * Per-entry audit state; written by one pool task, read after the chunks are joined
+     */
+    private static final class AuditedEntry {
+        
+        private final PasswordEntrySummary summary;
+        private final byte[] ciphertext;
+        private ByteBuffer digest;
+        private List<String> weaknesses;
+        private String error;
+        
+        AuditedEntry(PasswordEntrySummary summary, byte[] ciphertext) {
+            this.summary = summary;
+            this.ciphertext = ciphertext;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.securevault.service;
+
+import com.securevault.dto.PasswordEntryChange;
+import com.securevault.dto.PasswordEntryResponse;
+import com.securevault.dto.VaultChangesResponse;
+import com.securevault.entity.PasswordEntryTombstone;
+import com.securevault.repository.PasswordEntryTombstoneRepository;
+import com.securevault.repository.PasswordRepository;
+import com.securevault.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * VaultChangeService - Per-user change sequence, tombstones and the delta sync feed
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. Every add and delete takes the next values of the owner's change sequence in its own transaction
+ * 2. Advancing the sequence locks the user's row until commit, so one user's changes commit in
+ *    sequence order and a cursor can never skip a change that commits late
+ * 3. Deletes leave a tombstone; a sync reads both tables through (userId, changeSeq) indexes,
+ *    so its cost follows the number of changes since the cursor, not the vault size
+ * 4. Tombstones past the retention period are compacted; cursors older than the newest compacted
+ *    tombstone are answered with a resync flag instead of silently missing deletions
+ */
+@Service
+public class VaultChangeService {
+    
+    private static final Logger log = LoggerFactory.getLogger(VaultChangeService.class);
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    @Autowired
+    private PasswordRepository passwordRepository;
+    
+    @Autowired
+    private PasswordEntryTombstoneRepository tombstoneRepository;
+    
+    @Value("${vault.changes.tombstone-retention-days:30}")
+    private int retentionDays;
+    
+    /**
+     * Reserves consecutive change sequence values for the user's vault
+     * Must run inside the transaction that writes the changes, which then holds the user's row lock
+     * 
+     * @return The first reserved value
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long reserve(Long userId, int count) {
+        userRepository.advanceChangeSeq(userId, count);
+        return userRepository.getLastChangeSeq(userId) - count + 1;
+    }
+    
+    /**
+     * Writes the tombstone of a deleted entry; must run inside the deleting transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Long userId, Long entryId) {
+        long changeSeq = reserve(userId, 1);
+        tombstoneRepository.save(new PasswordEntryTombstone(entryId, userId, changeSeq, LocalDateTime.now()));
+    }
+    
+    /**
+     * Returns up to limit changes after the cursor, oldest first
+     * Only sequence values up to the user's committed last_change_seq are read, so both queries see
+     * the same complete set of changes even if writes commit in between
+     */
+    @Transactional(readOnly = true)
+    public VaultChangesResponse getChanges(Long userId, long since, int limit) {
+        if (since > 0 && since < userRepository.getTombstoneHorizon(userId)) {
+            return new VaultChangesResponse(List.of(), List.of(), "0", false, true);
+        }
+        long until = userRepository.getLastChangeSeq(userId);
+        if (since >= until) {
+            return new VaultChangesResponse(List.of(), List.of(), String.valueOf(until), false, false);
+        }
+        
+        // Fetch one extra row from each side to know whether another page follows
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<PasswordEntryChange> entries = passwordRepository.findChanges(userId, since, until, page);
+        List<PasswordEntryTombstone> tombstones = tombstoneRepository.findChanges(userId, since, until, page);
+        
+        // Merge both sides by change sequence and cut the page after limit changes
+        List<PasswordEntryResponse> changed = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        int e = 0;
+        int t = 0;
+        long cursor = since;
+        while (changed.size() + deleted.size() < limit && (e < entries.size() || t < tombstones.size())) {
+            boolean takeEntry = t >= tombstones.size()
+                    || (e < entries.size() && entries.get(e).getChangeSeq() < tombstones.get(t).getChangeSeq());
+            if (takeEntry) {
+                PasswordEntryChange entry = entries.get(e++);
+                changed.add(new PasswordEntryResponse(entry.getId(), entry.getAppName(), entry.getAppUsername(), "********", null));
+                cursor = entry.getChangeSeq();
+            } else {
+                PasswordEntryTombstone tombstone = tombstones.get(t++);
+                deleted.add(tombstone.getEntryId());
+                cursor = tombstone.getChangeSeq();
+            }
+        }
+        
+        boolean hasMore = e < entries.size() || t < tombstones.size();
+        if (!hasMore) {
+            // Sequences of entries that were added and deleted again leave no row; skip past them
+            cursor = until;
+        }
+        return new VaultChangesResponse(changed, deleted, String.valueOf(cursor), hasMore, false);
+    }
+    
+    /**
+     * Removes tombstones past the retention period
+     * Each affected user's horizon is raised first, so older cursors are told to resync
+     */
+    @Scheduled(fixedDelayString = "${vault.changes.compaction-interval-ms:3600000}")
+    @Transactional
+    public void compactTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        userRepository.raiseTombstoneHorizons(cutoff);
+        int removed = tombstoneRepository.deleteOlderThan(cutoff);
+        if (removed > 0) {
+            log.info("Compacted {} tombstones older than {} days", removed, retentionDays);
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package com.securevault.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.securevault.constants.ValidationConstants;
+import com.securevault.dto.ImportRecord;
+import com.securevault.dto.ImportResponse;
+import com.securevault.entity.PasswordEntry;
+import com.securevault.repository.PasswordRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * VaultImportService - Streams credentials exported from other password managers into the vault
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. CSV and JSON are parsed incrementally; only one chunk of records is held in memory
+ * 2. Each chunk is encrypted in parallel on the crypto pool with the user's data key
+ * 3. Each chunk is written with JDBC batch inserts and committed in its own transaction
+ * 4. Progress of the running import can be polled per user
+ */
+@Service
+public class VaultImportService {
+    
+    private static final Logger log = LoggerFactory.getLogger(VaultImportService.class);
+    private static final int MAX_REPORTED_ERRORS = 100;
+    // Generous for notes columns of password manager exports, small enough to bound a malformed file
+    private static final int CSV_MAX_FIELD_LENGTH = 64 * 1024;
+    private static final int CSV_MAX_RECORD_LENGTH = 256 * 1024;
+    
+    private static final List<String> APP_NAME_COLUMNS = List.of("appname", "name", "title", "url", "login_uri");
+    private static final List<String> APP_USERNAME_COLUMNS = List.of("appusername", "username", "login_username", "login");
+    private static final List<String> PASSWORD_COLUMNS = List.of("password", "login_password");
+    
+    @Autowired
+    private PasswordRepository passwordRepository;
+    
+    @Autowired
+    private CryptoService cryptoService;
+    
+    @Autowired
+    private VaultService vaultService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private VaultSearchIndex vaultSearchIndex;
+    
+    @Autowired
+    private VaultChangeService vaultChangeService;
+    
+    @Autowired
+    @Qualifier("cryptoExecutor")
+    private Executor cryptoExecutor;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${vault.import.chunk-size:500}")
+    private int chunkSize;
+    
+    private final Map<Long, ImportProgress> runningImports = new ConcurrentHashMap<>();
+    
+    public VaultImportService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    /**
+     * Imports all records from the input stream
+     * Verifies the master PIN (or unlock session) once before reading the file
+     * 
+     * @param csv true for CSV input, false for a JSON array of entries
+     */
+    public ImportResponse importPasswords(Long userId, InputStream input, boolean csv,
+                                          String masterPin, String unlockToken) {
+        try {
+            SecretKey dataKey = vaultService.resolveDataKey(userId, masterPin, unlockToken);
+            return importRecords(userId, dataKey, csv ? csvSource(input) : jsonSource(input));
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to import passwords: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Imports records from any source, one chunk at a time
+     * The caller must already have verified the master PIN (or unlock session)
+     */
+    ImportResponse importRecords(Long userId, SecretKey dataKey, RecordSource source) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        if (runningImports.putIfAbsent(userId, progress) != null) {
+            throw new RuntimeException("An import is already in progress");
+        }
+        
+        try {
+            List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+            ImportRecord record;
+            while ((record = source.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(userId, dataKey, chunk, progress);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(userId, dataKey, chunk, progress);
+            }
+            
+            progress.completed = true;
+            log.info("Imported {} entries ({} failed)", progress.imported.get(), progress.failed.get());
+            return progress.toResponse();
+        } finally {
+            runningImports.remove(userId);
+        }
+    }
+    
+    /**
+     * Returns the progress of the user's running import, if any
+     */
+    public Optional<ImportResponse> getProgress(Long userId) {
+        return Optional.ofNullable(runningImports.get(userId)).map(ImportProgress::toResponse);
+    }
+    
+    private void writeChunk(Long userId, SecretKey dataKey, List<ImportRecord> chunk, ImportProgress progress) {
+        long firstRecord = progress.processed.get() + 1;
+        
+        // Encrypt valid records in parallel
+        List<CompletableFuture<PasswordEntry>> futures = new ArrayList<>(chunk.size());
+        List<Long> recordNumbers = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ImportRecord record = chunk.get(i);
+            long recordNumber = firstRecord + i;
+            String error = validate(record);
+            if (error != null) {
+                progress.fail("Record " + recordNumber + ": " + error);
+                continue;
+            }
+            futures.add(CompletableFuture.supplyAsync(() -> toEntry(userId, record, dataKey), cryptoExecutor));
+            recordNumbers.add(recordNumber);
+        }
+        
+        List<PasswordEntry> entries = new ArrayList<>(futures.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                entries.add(futures.get(i).join());
+            } catch (CompletionException e) {
+                progress.fail("Record " + recordNumbers.get(i) + ": failed to encrypt password");
+            }
+        }
+        
+        // One transaction per chunk; flushed as JDBC batches and detached so memory stays flat
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!entries.isEmpty()) {
+                long changeSeq = vaultChangeService.reserve(userId, entries.size());
+                for (PasswordEntry entry : entries) {
+                    entry.setChangeSeq(changeSeq++);
+                }
+            }
+            passwordRepository.saveAll(entries);
+            entityManager.flush();
+            entityManager.clear();
+        });
+        
+        for (PasswordEntry entry : entries) {
+            vaultSearchIndex.onEntrySaved(userId, entry.getId(), entry.getAppName(), entry.getAppUsername());
+        }
+        progress.imported.addAndGet(entries.size());
+        progress.processed.addAndGet(chunk.size());
+    }
+    
+    private PasswordEntry toEntry(Long userId, ImportRecord record, SecretKey dataKey) {
+        try {
+            PasswordEntry entry = new PasswordEntry();
+            entry.setUserId(userId);
+            entry.setAppName(record.getAppName());
+            entry.setAppUsername(record.getAppUsername());
+            entry.setCiphertext(cryptoService.encrypt(record.getPassword(), dataKey));
+            return entry;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+    
+    private RecordSource csvSource(InputStream input) throws IOException {
+        CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(input, StandardCharsets.UTF_8),
+                CSV_MAX_FIELD_LENGTH, CSV_MAX_RECORD_LENGTH);
+        List<String> header = reader.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        
+        List<String> columns = new ArrayList<>();
+        for (String column : header) {
+            columns.add(column.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT));
+        }
+        int appNameColumn = findColumn(columns, APP_NAME_COLUMNS);
+        int appUsernameColumn = findColumn(columns, APP_USERNAME_COLUMNS);
+        int passwordColumn = findColumn(columns, PASSWORD_COLUMNS);
+        if (appNameColumn < 0 || appUsernameColumn < 0 || passwordColumn < 0) {
+            throw new RuntimeException("CSV header must contain name, username and password columns");
+        }
+        
+        return () -> {
+            List<String> fields;
+            do {
+                try {
+                    fields = reader.readRecord();
+                } catch (CsvRecordReader.RecordTooLongException e) {
+                    return ImportRecord.rejected(e.getMessage());
+                }
+            } while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+            if (fields == null) {
+                return null;
+            }
+            return new ImportRecord(
+                    field(fields, appNameColumn),
+                    field(fields, appUsernameColumn),
+                    field(fields, passwordColumn));
+        };
+    }
+    
+    private RecordSource jsonSource(InputStream input) throws IOException {
+        JsonParser parser = objectMapper.getFactory().createParser(input);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw new RuntimeException("JSON import must be an array of entries");
+        }
+        
+        return () -> parser.nextToken() == JsonToken.START_OBJECT
+                ? objectMapper.readValue(parser, ImportRecord.class)
+                : null;
+    }
+    
+    /**
+     * Returns why a record cannot be stored, or null if it can
+     * Checked before encryption, so one bad record never fails its chunk's batch insert
+     */
+    private String validate(ImportRecord record) {
+        if (record.getError() != null) {
+            return record.getError();
+        }
+        if (isBlank(record.getAppName()) || isBlank(record.getAppUsername()) || isBlank(record.getPassword())) {
+            return "app name, username and password are required";
+        }
+        if (record.getAppName().length() > ValidationConstants.APP_NAME_MAX_LENGTH) {
+            return "app name is longer than " + ValidationConstants.APP_NAME_MAX_LENGTH + " characters";
+        }
+        if (record.getAppUsername().length() > ValidationConstants.APP_USERNAME_MAX_LENGTH) {
+            return "username is longer than " + ValidationConstants.APP_USERNAME_MAX_LENGTH + " characters";
+        }
+        int passwordBytes = record.getPassword().getBytes(StandardCharsets.UTF_8).length;
+        if (cryptoService.encryptedLength(passwordBytes) > ValidationConstants.CIPHERTEXT_MAX_LENGTH) {
+            return "password is too long";
+        }
+        return null;
+    }
+    
+    private static int findColumn(List<String> columns, List<String> candidates) {
+        for (String candidate : candidates) {
+            int index = columns.indexOf(candidate);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return -1;
+    }
+    
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+    
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+    
+    /**
+     * Supplies import records one at a time; returns null at end of input
+     */
+    @FunctionalInterface
+    interface RecordSource {
+        ImportRecord next() throws IOException;
+    }
+    
+    private static final class ImportProgress {
+        private final AtomicLong processed = new AtomicLong();
+        private final AtomicLong imported = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean completed;
+        
+        private void fail(String error) {
+            failed.incrementAndGet();
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+        
+        private ImportResponse toResponse() {
+            synchronized (errors) {
+                return new ImportResponse(processed.get(), imported.get(), failed.get(),
+                        new ArrayList<>(errors), completed);
+            }
+        }
+    }
+}
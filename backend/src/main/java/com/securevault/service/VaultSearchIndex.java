@@ -0,0 +1,274 @@
+package com.securevault.service;
+
+import com.securevault.dto.PasswordEntrySummary;
+import com.securevault.repository.PasswordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * VaultSearchIndex - Per-user in-memory index over appName and appUsername
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. A user's index is built lazily from the list projection on their first search
+ * 2. Vault writes update loaded indexes incrementally; unloaded ones pick changes up when built
+ * 3. Indexes are softly referenced, so the GC evicts them under memory pressure
+ * 4. Queries of 3+ characters only scan entries sharing the query's rarest trigram
+ * 
+ * Only names and usernames are indexed; passwords never enter the index.
+ */
+@Component
+public class VaultSearchIndex {
+    
+    private static final int GRAM = 3;
+    
+    // Best first: higher score, then app name, then id
+    private static final Comparator<Hit> RANKING = Comparator.comparingInt((Hit h) -> -h.score)
+            .thenComparing(h -> h.doc.name)
+            .thenComparing(h -> h.doc.summary.getId());
+    
+    @Autowired
+    private PasswordRepository passwordRepository;
+    
+    private final Map<Long, SoftReference<UserIndex>> indexes = new ConcurrentHashMap<>();
+    
+    /**
+     * Returns the best matching entries for the query, highest rank first
+     */
+    public List<PasswordEntrySummary> search(Long userId, String query, int limit) {
+        String q = query.trim().toLowerCase(Locale.ROOT);
+        if (q.isEmpty()) {
+            return List.of();
+        }
+        return loadIndex(userId).search(q, limit);
+    }
+    
+    /**
+     * Records a new or changed entry in the user's index, if it is loaded
+     */
+    public void onEntrySaved(Long userId, Long id, String appName, String appUsername) {
+        UserIndex index = loadedIndex(userId);
+        if (index != null) {
+            index.put(new PasswordEntrySummary(id, appName, appUsername));
+        }
+    }
+    
+    /**
+     * Removes a deleted entry from the user's index, if it is loaded
+     */
+    public void onEntryDeleted(Long userId, Long id) {
+        UserIndex index = loadedIndex(userId);
+        if (index != null) {
+            index.remove(id);
+        }
+    }
+    
+    private UserIndex loadedIndex(Long userId) {
+        SoftReference<UserIndex> ref = indexes.get(userId);
+        return ref == null ? null : ref.get();
+    }
+    
+    private UserIndex loadIndex(Long userId) {
+        UserIndex index = loadedIndex(userId);
+        if (index != null) {
+            return index;
+        }
+        
+        // Publish the index before loading so writes racing the load are applied to it
+        UserIndex created = new UserIndex();
+        SoftReference<UserIndex> ref = indexes.compute(userId, (id, existing) ->
+                existing != null && existing.get() != null ? existing : new SoftReference<>(created));
+        index = ref.get();
+        if (index == null) {
+            return loadIndex(userId);
+        }
+        if (index == created) {
+            try {
+                index.load(passwordRepository.findSummaries(userId, Pageable.unpaged()));
+            } catch (RuntimeException e) {
+                indexes.remove(userId, ref);
+                index.load(List.of());
+                throw e;
+            }
+        }
+        return index;
+    }
+    
+    private static final class UserIndex {
+        private final Map<Long, Doc> docs = new HashMap<>();
+        private final Map<String, Set<Long>> postings = new HashMap<>();
+        // Ids deleted while the load query ran; its rows may predate the delete
+        private final Set<Long> deletedWhileLoading = new HashSet<>();
+        private boolean loaded;
+        
+        private synchronized void load(Collection<PasswordEntrySummary> rows) {
+            for (PasswordEntrySummary row : rows) {
+                // Entries written while the load query ran are already present and newer
+                if (!docs.containsKey(row.getId()) && !deletedWhileLoading.contains(row.getId())) {
+                    add(new Doc(row));
+                }
+            }
+            deletedWhileLoading.clear();
+            loaded = true;
+            notifyAll();
+        }
+        
+        private synchronized void put(PasswordEntrySummary row) {
+            unindex(row.getId());
+            add(new Doc(row));
+        }
+        
+        private synchronized void remove(Long id) {
+            if (!loaded) {
+                deletedWhileLoading.add(id);
+            }
+            unindex(id);
+        }
+        
+        private void unindex(Long id) {
+            Doc doc = docs.remove(id);
+            if (doc != null) {
+                for (String gram : doc.grams()) {
+                    Set<Long> ids = postings.get(gram);
+                    ids.remove(id);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+        
+        private synchronized List<PasswordEntrySummary> search(String q, int limit) {
+            while (!loaded) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return List.of();
+                }
+            }
+            
+            Collection<Doc> candidates = docs.values();
+            if (q.length() >= GRAM) {
+                Set<Long> rarest = null;
+                for (String gram : gramsOf(q)) {
+                    Set<Long> ids = postings.get(gram);
+                    if (ids == null) {
+                        return List.of();
+                    }
+                    if (rarest == null || ids.size() < rarest.size()) {
+                        rarest = ids;
+                    }
+                }
+                List<Doc> narrowed = new ArrayList<>(rarest.size());
+                for (Long id : rarest) {
+                    narrowed.add(docs.get(id));
+                }
+                candidates = narrowed;
+            }
+            
+            // Keep only the best `limit` hits in a min-heap instead of sorting every match
+            PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+            for (Doc doc : candidates) {
+                int score = doc.score(q);
+                if (score == 0) {
+                    continue;
+                }
+                Hit hit = new Hit(doc, score);
+                if (top.size() < limit) {
+                    top.add(hit);
+                } else if (RANKING.compare(hit, top.peek()) < 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+            
+            List<Hit> hits = new ArrayList<>(top);
+            hits.sort(RANKING);
+            List<PasswordEntrySummary> results = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                results.add(hit.doc.summary);
+            }
+            return results;
+        }
+        
+        private void add(Doc doc) {
+            docs.put(doc.summary.getId(), doc);
+            for (String gram : doc.grams()) {
+                postings.computeIfAbsent(gram, g -> new HashSet<>()).add(doc.summary.getId());
+            }
+        }
+    }
+    
+    private static final class Doc {
+        private final PasswordEntrySummary summary;
+        private final String name;
+        private final String username;
+        
+        private Doc(PasswordEntrySummary summary) {
+            this.summary = summary;
+            this.name = summary.getAppName().toLowerCase(Locale.ROOT);
+            this.username = summary.getAppUsername().toLowerCase(Locale.ROOT);
+        }
+        
+        private Set<String> grams() {
+            Set<String> grams = gramsOf(name);
+            grams.addAll(gramsOf(username));
+            return grams;
+        }
+        
+        /**
+         * Ranks name matches above username matches, and exact > prefix > word prefix > substring
+         */
+        private int score(String q) {
+            if (name.equals(q)) {
+                return 100;
+            }
+            if (name.startsWith(q)) {
+                return 80;
+            }
+            int at = name.indexOf(q);
+            if (at > 0 && !Character.isLetterOrDigit(name.charAt(at - 1))) {
+                return 60;
+            }
+            if (at > 0) {
+                return 40;
+            }
+            if (username.startsWith(q)) {
+                return 30;
+            }
+            return username.contains(q) ? 20 : 0;
+        }
+    }
+    
+    private static final class Hit {
+        private final Doc doc;
+        private final int score;
+        
+        private Hit(Doc doc, int score) {
+            this.doc = doc;
+            this.score = score;
+        }
+    }
+    
+    private static Set<String> gramsOf(String value) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            grams.add(value.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
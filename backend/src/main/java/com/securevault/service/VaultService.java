@@ -1,14 +1,32 @@
 package com.securevault.service;
 
 import com.securevault.dto.AddPasswordRequest;
+import com.securevault.dto.BatchPasswordResult;
 import com.securevault.dto.DecryptedPasswordResponse;
 import com.securevault.dto.PasswordEntryResponse;
+import com.securevault.dto.PasswordEntrySummary;
+import com.securevault.dto.PasswordPageResponse;
+import com.securevault.dto.UnlockResponse;
 import com.securevault.entity.PasswordEntry;
 import com.securevault.repository.PasswordRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
@@ -16,9 +34,9 @@ import java.util.stream.Collectors;
  * 
  * SECURITY LOGIC:
  * 1. All passwords are encrypted with AES-256 before storage
- * 2. Encryption key is derived from master password using PBKDF2
+ * 2. Passwords are encrypted with the user's data key, unwrapped once per request via the master PIN
  * 3. Passwords are NEVER stored in plaintext
- * 4. Master password is verified before decryption
+ * 4. Master password (or a live unlock session) is verified before decryption
  * 5. Only password owner can access their passwords
  * 6. Passwords are masked (********) in list responses
  */
@@ -34,19 +52,94 @@ public class VaultService {
     @Autowired
     private AuthService authService;
     
+    @Autowired
+    private UnlockSessionStore unlockSessionStore;
+    
+    @Autowired
+    private CiphertextMigrationService ciphertextMigrationService;
+    
+    @Autowired
+    private VaultSearchIndex vaultSearchIndex;
+    
+    @Autowired
+    private VaultChangeService vaultChangeService;
+    
+    @Autowired
+    private BreachedPasswordChecker breachedPasswordChecker;
+    
+    @Autowired
+    @Qualifier("cryptoExecutor")
+    private Executor cryptoExecutor;
+    
+    private final TransactionTemplate transactionTemplate;
+    
+    public VaultService(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
     /**
-     * Retrieves all password entries for a user
+     * Unlocks the vault for a short-lived session
+     * Verifies the master PIN once; later calls can pass the returned handle instead
+     */
+    public UnlockResponse unlock(Long userId, String masterPin) {
+        try {
+            SecretKey dataKey = authService.unlockDataKey(userId, masterPin);
+            String unlockToken = unlockSessionStore.open(userId, dataKey);
+            return new UnlockResponse(unlockToken, unlockSessionStore.getTtlSeconds());
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to unlock vault: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Retrieves one page of password entries for a user, ordered by app name
+     * Uses keyset pagination: the cursor encodes the last (appName, id) of the previous page
      * Passwords are masked for security
      */
-    public List<PasswordEntryResponse> getAllPasswords(Long userId) {
-        List<PasswordEntry> entries = passwordRepository.findByUserId(userId);
+    public PasswordPageResponse getPasswordPage(Long userId, String cursor, int limit) {
+        // Fetch one extra row to know whether another page follows
+        PageRequest page = PageRequest.of(0, limit + 1);
+        List<PasswordEntrySummary> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = passwordRepository.findSummaries(userId, page);
+        } else {
+            String[] position = decodeCursor(cursor);
+            rows = passwordRepository.findSummariesAfter(userId, position[1], Long.valueOf(position[0]), page);
+        }
         
-        return entries.stream()
-                .map(entry -> new PasswordEntryResponse(
-                        entry.getId(),
-                        entry.getAppName(),
-                        entry.getAppUsername(),
-                        "********" // Passwords are always masked
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) {
+            rows = rows.subList(0, limit);
+        }
+        
+        List<PasswordEntryResponse> entries = rows.stream()
+                .map(row -> new PasswordEntryResponse(
+                        row.getId(),
+                        row.getAppName(),
+                        row.getAppUsername(),
+                        "********", // Passwords are always masked
+                        null
+                ))
+                .collect(Collectors.toList());
+        
+        String nextCursor = hasMore ? encodeCursor(rows.get(rows.size() - 1)) : null;
+        return new PasswordPageResponse(entries, nextCursor);
+    }
+    
+    /**
+     * Searches the user's entries by app name and username, best matches first
+     * Passwords are masked for security
+     */
+    public List<PasswordEntryResponse> searchPasswords(Long userId, String query, int limit) {
+        return vaultSearchIndex.search(userId, query, limit).stream()
+                .map(row -> new PasswordEntryResponse(
+                        row.getId(),
+                        row.getAppName(),
+                        row.getAppUsername(),
+                        "********",
+                        null
                 ))
                 .collect(Collectors.toList());
     }
@@ -54,34 +147,42 @@ public class VaultService {
     /**
      * Adds a new password entry
      * Encrypts password using master PIN before storage
+     * The response says whether the password appears in the breached-password corpus (if one is configured)
      */
     public PasswordEntryResponse addPassword(Long userId, AddPasswordRequest request) {
         try {
-            // Verify master PIN
-            if (!authService.verifyMasterPin(userId, request.getMasterPin())) {
-                throw new RuntimeException("Invalid master PIN");
-            }
+            // Verify master PIN (or unlock session) and unwrap the user's data key
+            SecretKey dataKey = resolveDataKey(userId, request.getMasterPin(), request.getUnlockToken());
             
-            // Encrypt password using AES-256 with key derived from master PIN
-            String encryptedPassword = cryptoService.encrypt(
-                    request.getPassword(), 
-                    request.getMasterPin()
-            );
+            // Encrypt password using AES-256 with the user's data key
+            byte[] ciphertext = cryptoService.encrypt(request.getPassword(), dataKey);
+            
+            // Flag (never reject) passwords found in the breached-password corpus
+            Boolean breached = breachedPasswordChecker.isEnabled()
+                    ? breachedPasswordChecker.isBreached(request.getPassword())
+                    : null;
             
             // Create and save password entry
             PasswordEntry entry = new PasswordEntry();
             entry.setUserId(userId);
             entry.setAppName(request.getAppName());
             entry.setAppUsername(request.getAppUsername());
-            entry.setEncryptedPassword(encryptedPassword);
-            entry = passwordRepository.save(entry);
+            entry.setCiphertext(ciphertext);
+            PasswordEntry saved = transactionTemplate.execute(status -> {
+                entry.setChangeSeq(vaultChangeService.reserve(userId, 1));
+                return passwordRepository.save(entry);
+            });
+            vaultSearchIndex.onEntrySaved(userId, saved.getId(), saved.getAppName(), saved.getAppUsername());
             
             return new PasswordEntryResponse(
-                    entry.getId(),
-                    entry.getAppName(),
-                    entry.getAppUsername(),
-                    "********"
+                    saved.getId(),
+                    saved.getAppName(),
+                    saved.getAppUsername(),
+                    "********",
+                    breached
             );
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to add password: " + e.getMessage());
         }
@@ -90,39 +191,194 @@ public class VaultService {
     /**
      * Shows (decrypts) a password entry
      * CRITICAL: Only decrypts after master PIN verification
+     * Entries in an older ciphertext format are re-encrypted in the current one after the reveal
      */
-    public DecryptedPasswordResponse showPassword(Long userId, Long entryId, String masterPin) {
+    public DecryptedPasswordResponse showPassword(Long userId, Long entryId, String masterPin, String unlockToken) {
         try {
             // Verify user ownership
             PasswordEntry entry = passwordRepository.findByIdAndUserId(entryId, userId)
                     .orElseThrow(() -> new RuntimeException("Password entry not found"));
             
-            // CRITICAL: Verify master PIN before decryption
-            if (!authService.verifyMasterPin(userId, masterPin)) {
-                throw new RuntimeException("Invalid master PIN");
+            byte[] ciphertext = storedCiphertext(entry);
+            
+            SecretKey dataKey;
+            String decryptedPassword;
+            if (cryptoService.isDataKeyEncrypted(ciphertext)) {
+                // CRITICAL: Verify master PIN (or unlock session) before decryption
+                dataKey = resolveDataKey(userId, masterPin, unlockToken);
+                decryptedPassword = cryptoService.decrypt(ciphertext, dataKey);
+            } else {
+                // Legacy entries need the PIN itself to derive their key
+                if (masterPin == null) {
+                    throw new RuntimeException("Master PIN is required for this entry");
+                }
+                
+                // CRITICAL: Verify master PIN before decryption (also unwraps the data key for the upgrade)
+                dataKey = authService.unlockDataKey(userId, masterPin);
+                
+                // Legacy entry: decrypt with a per-entry key derived from the master PIN
+                decryptedPassword = cryptoService.decrypt(ciphertext, masterPin);
             }
             
-            // Decrypt password using master PIN
-            String decryptedPassword = cryptoService.decrypt(
-                    entry.getEncryptedPassword(),
-                    masterPin
-            );
+            ciphertextMigrationService.upgradeIfNeeded(entryId, userId, ciphertext, decryptedPassword, dataKey);
             
             return new DecryptedPasswordResponse(decryptedPassword);
+        } catch (TooManyRequestsException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Failed to decrypt password: " + e.getMessage());
         }
     }
     
+    /**
+     * Shows (decrypts) several password entries at once
+     * Loads all owned entries in one query, verifies the master PIN (or unlock session) once
+     * and decrypts in parallel on the bounded crypto pool
+     * Results are returned in request order, with per-entry errors
+     */
+    public List<BatchPasswordResult> showPasswords(Long userId, List<Long> entryIds, String masterPin, String unlockToken) {
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(entryIds));
+        Map<Long, byte[]> ciphertexts = new HashMap<>();
+        for (PasswordEntry entry : passwordRepository.findByUserIdAndIdIn(userId, ids)) {
+            ciphertexts.put(entry.getId(), storedCiphertext(entry));
+        }
+        
+        boolean hasDataKeyEntries = ciphertexts.values().stream().anyMatch(cryptoService::isDataKeyEncrypted);
+        boolean hasLegacyEntries = ciphertexts.values().stream().anyMatch(c -> !cryptoService.isDataKeyEncrypted(c));
+        
+        // CRITICAL: Verify master PIN (or unlock session) once, before any decryption
+        SecretKey dataKey;
+        boolean pinVerified;
+        try {
+            dataKey = hasDataKeyEntries ? resolveDataKey(userId, masterPin, unlockToken) : null;
+            pinVerified = hasDataKeyEntries && unlockToken == null;
+            if (hasLegacyEntries && masterPin != null && !pinVerified) {
+                if (!authService.verifyMasterPin(userId, masterPin)) {
+                    throw new RuntimeException("Invalid master PIN");
+                }
+                pinVerified = true;
+            }
+        } catch (TooManyRequestsException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to decrypt passwords: " + e.getMessage());
+        }
+        
+        boolean legacyAllowed = pinVerified;
+        List<CompletableFuture<BatchPasswordResult>> futures = ids.stream()
+                .map(id -> CompletableFuture.supplyAsync(
+                        () -> decryptForBatch(id, ciphertexts.get(id), dataKey, legacyAllowed ? masterPin : null),
+                        cryptoExecutor))
+                .collect(Collectors.toList());
+        
+        return futures.stream()
+                .map(future -> {
+                    try {
+                        return future.join();
+                    } catch (CompletionException e) {
+                        if (e.getCause() instanceof TooManyRequestsException) {
+                            throw (TooManyRequestsException) e.getCause();
+                        }
+                        throw e;
+                    }
+                })
+                .collect(Collectors.toList());
+    }
+    
     /**
      * Deletes a password entry
      * Validates user ownership before deletion
      */
     public void deletePassword(Long userId, Long entryId) {
-        // Verify user ownership
-        PasswordEntry entry = passwordRepository.findByIdAndUserId(entryId, userId)
-                .orElseThrow(() -> new RuntimeException("Password entry not found"));
-        
-        passwordRepository.delete(entry);
+        // The tombstone is written in the same transaction, so sync clients see every committed delete
+        transactionTemplate.executeWithoutResult(status -> {
+            // Verify user ownership
+            PasswordEntry entry = passwordRepository.findByIdAndUserId(entryId, userId)
+                    .orElseThrow(() -> new RuntimeException("Password entry not found"));
+            
+            vaultChangeService.recordDeletion(userId, entryId);
+            passwordRepository.delete(entry);
+        });
+        vaultSearchIndex.onEntryDeleted(userId, entryId);
+    }
+    
+    private BatchPasswordResult decryptForBatch(Long id, byte[] ciphertext, SecretKey dataKey, String masterPin) {
+        if (ciphertext == null) {
+            return new BatchPasswordResult(id, null, "Password entry not found");
+        }
+        try {
+            if (cryptoService.isDataKeyEncrypted(ciphertext)) {
+                return new BatchPasswordResult(id, cryptoService.decrypt(ciphertext, dataKey), null);
+            }
+            if (masterPin == null) {
+                return new BatchPasswordResult(id, null, "Master PIN is required for this entry");
+            }
+            return new BatchPasswordResult(id, cryptoService.decrypt(ciphertext, masterPin), null);
+        } catch (TooManyRequestsException e) {
+            // KDF pool saturated on a legacy entry: fail the whole batch with 429, not a per-entry error
+            throw e;
+        } catch (Exception e) {
+            return new BatchPasswordResult(id, null, "Failed to decrypt password");
+        }
+    }
+    
+    /**
+     * Decrypts an entry whose owner's PIN (or unlock session) has already been verified
+     * Legacy entries need the master PIN itself to derive their key
+     */
+    String decryptEntry(PasswordEntry entry, SecretKey dataKey, String masterPin) throws Exception {
+        byte[] ciphertext = storedCiphertext(entry);
+        if (cryptoService.isDataKeyEncrypted(ciphertext)) {
+            return cryptoService.decrypt(ciphertext, dataKey);
+        }
+        if (masterPin == null) {
+            throw new RuntimeException("Master PIN is required for this entry");
+        }
+        return cryptoService.decrypt(ciphertext, masterPin);
+    }
+    
+    private static String encodeCursor(PasswordEntrySummary last) {
+        String position = last.getId() + ":" + last.getAppName();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Returns {id, appName} from an opaque cursor
+     */
+    private static String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split(":", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException();
+            }
+            Long.parseLong(parts[0]);
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+    
+    /**
+     * Returns the entry's binary ciphertext
+     * Rows not yet migrated by CiphertextMigrationService are converted on the fly
+     */
+    byte[] storedCiphertext(PasswordEntry entry) {
+        return entry.getCiphertext() != null
+                ? entry.getCiphertext()
+                : cryptoService.fromBase64Format(entry.getEncryptedPassword(),
+                        Boolean.TRUE.equals(entry.getEnvelopeEncrypted()));
+    }
+    
+    /**
+     * Returns the user's data key from an unlock session if a handle is given,
+     * otherwise verifies the master PIN and unwraps the key
+     */
+    SecretKey resolveDataKey(Long userId, String masterPin, String unlockToken) throws Exception {
+        if (unlockToken != null) {
+            return unlockSessionStore.get(unlockToken, userId)
+                    .orElseThrow(() -> new RuntimeException("Vault session expired"));
+        }
+        return authService.unlockDataKey(userId, masterPin);
     }
 }
@@ -0,0 +1,54 @@
+package com.securevault.service;
+
+import com.securevault.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * VaultVersionStore - Per-user vault version backing the list ETag
+ * 
+ * PERFORMANCE LOGIC:
+ * 1. The version is the user's users.last_change_seq, which every committed vault write
+ *    (add, delete, import chunk) advances in its own transaction
+ * 2. The list ETag is derived from it alone, so an unchanged vault is answered with
+ *    304 Not Modified after one primary key read, without querying or serializing the list
+ * 3. The sequence is durable and shared, so ETags stay valid across restarts and nodes and
+ *    never repeat for an older vault state
+ */
+@Component
+public class VaultVersionStore {
+    
+    @Autowired
+    private UserRepository userRepository;
+    
+    public long getVersion(Long userId) {
+        return userRepository.getLastChangeSeq(userId);
+    }
+    
+    /**
+     * Strong ETag of the user's vault list at its current version
+     * The user id is part of the tag, so a browser cache shared by two accounts cannot match across them
+     */
+    public String etag(Long userId) {
+        return "\"" + userId + "-" + getVersion(userId) + "\"";
+    }
+    
+    /**
+     * Checks an If-None-Match header against an ETag (weak comparison, as RFC 9110 requires for If-None-Match)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
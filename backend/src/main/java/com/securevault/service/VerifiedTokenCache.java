@@ -0,0 +1,97 @@
+package com.securevault.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * VerifiedTokenCache - Remembers recently verified JWT tokens until they expire
+ * 
+ * SECURITY LOGIC:
+ * 1. Keyed by SHA-256 digest of the token, so raw tokens are not kept as map keys
+ * 2. Entries are only added after full signature and expiry verification
+ * 3. Each entry expires at the token's own exp claim
+ * 4. Bounded: when full, expired entries are swept and new tokens are not cached until space frees up
+ */
+@Component
+public class VerifiedTokenCache {
+    
+    private final int maxSize;
+    private final Map<String, JwtPrincipal> tokens = new ConcurrentHashMap<>();
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    
+    public VerifiedTokenCache(@Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    public Optional<JwtPrincipal> get(String token) {
+        String key = digest(token);
+        JwtPrincipal principal = tokens.get(key);
+        if (principal == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (isExpired(principal, System.currentTimeMillis())) {
+            tokens.remove(key, principal);
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        hits.incrementAndGet();
+        return Optional.of(principal);
+    }
+    
+    public void put(String token, JwtPrincipal principal) {
+        if (tokens.size() >= maxSize) {
+            evictExpired();
+            if (tokens.size() >= maxSize) {
+                return;
+            }
+        }
+        tokens.put(digest(token), principal);
+    }
+    
+    /**
+     * Periodically removes expired tokens
+     */
+    @Scheduled(fixedDelayString = "${jwt.cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        tokens.values().removeIf(principal -> isExpired(principal, now));
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    public int size() {
+        return tokens.size();
+    }
+    
+    private static boolean isExpired(JwtPrincipal principal, long now) {
+        return principal.getExpiresAt().getTime() <= now;
+    }
+    
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
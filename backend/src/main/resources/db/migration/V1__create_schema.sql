@@ -0,0 +1,30 @@
+-- Baseline schema (previously generated by Hibernate with ddl-auto=create-drop)
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(255) not null,
+    login_password_hash varchar(255) not null,
+    master_pin_hash varchar(255) not null,
+    encrypted_data_key text,
+    created_at timestamp(6) not null,
+    primary key (id),
+    constraint uk_users_username unique (username)
+);
+
+-- Pooled id allocation (allocationSize = 50) so Hibernate can batch inserts
+create sequence password_entries_seq start with 1 increment by 50;
+
+create table password_entries (
+    id bigint not null,
+    user_id bigint not null,
+    app_name varchar(255) not null,
+    app_username varchar(255) not null,
+    ciphertext varbinary(4096),
+    encrypted_password text,
+    envelope_encrypted boolean,
+    created_at timestamp(6) not null,
+    primary key (id)
+);
+
+-- Keyset-paginated listing: where user_id = ? order by app_name, id
+create index idx_password_entries_user_app_name on password_entries (user_id, app_name, id);
@@ -0,0 +1,3 @@
+-- Per-user lookups ordered by id (export streaming, batch reveal by id list)
+-- Without it, H2 walks the (user_id, app_name, id) index and sorts every row of the user
+create index idx_password_entries_user_id on password_entries (user_id, id);
@@ -0,0 +1,26 @@
+-- Delta sync (GET /vault/changes): per-user change sequence plus tombstones for deleted entries
+
+-- Last change sequence handed out for the user's vault, and the newest sequence whose tombstones were compacted
+-- Writers advance last_change_seq inside their transaction, so the row lock orders one user's changes by commit
+alter table users add column last_change_seq bigint default 0 not null;
+alter table users add column tombstone_horizon bigint default 0 not null;
+
+alter table password_entries add column change_seq bigint;
+
+-- Existing rows: ids are unique and increase per user, so they serve as initial sequences
+update password_entries set change_seq = id;
+alter table password_entries alter column change_seq set not null;
+update users u set last_change_seq = coalesce((select max(e.id) from password_entries e where e.user_id = u.id), 0);
+
+create index idx_password_entries_user_change on password_entries (user_id, change_seq);
+
+create table password_entry_tombstones (
+    entry_id bigint not null,
+    user_id bigint not null,
+    change_seq bigint not null,
+    deleted_at timestamp(6) not null,
+    primary key (entry_id)
+);
+
+create index idx_password_entry_tombstones_user_change on password_entry_tombstones (user_id, change_seq);
+create index idx_password_entry_tombstones_deleted_at on password_entry_tombstones (deleted_at);
@@ -0,0 +1,26 @@
+-- Refresh tokens and revoked sessions (POST /auth/refresh, /auth/logout)
+
+-- Only the SHA-256 digest of a refresh token is stored; each rotation marks the presented token used
+-- and adds its successor to the same family (session), so a replayed token identifies the whole family
+create table refresh_tokens (
+    token_hash varchar(64) not null,
+    family_id varchar(64) not null,
+    user_id bigint not null,
+    used boolean default false not null,
+    expires_at timestamp(6) not null,
+    primary key (token_hash)
+);
+
+create index idx_refresh_tokens_family on refresh_tokens (family_id);
+create index idx_refresh_tokens_user on refresh_tokens (user_id);
+create index idx_refresh_tokens_expires_at on refresh_tokens (expires_at);
+
+-- Sessions whose access tokens must be rejected; kept until the last access token of the session has expired
+create table revoked_sessions (
+    session_id varchar(64) not null,
+    user_id bigint not null,
+    expires_at timestamp(6) not null,
+    primary key (session_id)
+);
+
+create index idx_revoked_sessions_expires_at on revoked_sessions (expires_at);
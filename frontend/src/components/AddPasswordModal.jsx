@@ -71,6 +71,7 @@ const AddPasswordModal = memo(function AddPasswordModal({ isOpen, onClose, onSub
               className="w-full px-3 py-2 border border-gray-300 rounded-md focus:outline-none focus:ring-2 focus:ring-blue-500"
               placeholder="e.g., Gmail, GitHub"
               required
+              maxLength={255}
             />
           </div>
 
@@ -85,6 +86,7 @@ const AddPasswordModal = memo(function AddPasswordModal({ isOpen, onClose, onSub
               className="w-full px-3 py-2 border border-gray-300 rounded-md focus:outline-none focus:ring-2 focus:ring-blue-500"
               placeholder="your.email@example.com"
               required
+              maxLength={255}
             />
           </div>
 
@@ -100,6 +102,7 @@ const AddPasswordModal = memo(function AddPasswordModal({ isOpen, onClose, onSub
                 className="w-full px-3 py-2 pr-10 border border-gray-300 rounded-md focus:outline-none focus:ring-2 focus:ring-blue-500"
                 placeholder="Password to store"
                 required
+                maxLength={1355}
               />
               <EyeIcon show={showPassword} onClick={() => setShowPassword(!showPassword)} />
             </div>
@@ -60,9 +60,12 @@ function VaultDashboard() {
 
   const handleAddPassword = useCallback(async (appName, appUsername, password, masterPin) => {
     try {
-      await vaultService.addPassword(appName, appUsername, password, masterPin);
+      const entry = await vaultService.addPassword(appName, appUsername, password, masterPin);
       setAddPasswordModal(false);
       loadPasswords();
+      if (entry.breached) {
+        alert(`This password has appeared in a data breach. Consider changing it on ${appName}.`);
+      }
     } catch (err) {
       alert(err.response?.data || 'Failed to add password');
     }
@@ -4,9 +4,32 @@ const API_URL = import.meta.env.VITE_API_URL || '';
 
 class AuthService {
   constructor() {
-    // Store JWT token in memory (not localStorage for security)
+    // Store JWT and refresh token in memory (not localStorage for security)
     this.token = null;
+    this.refreshToken = null;
     this.username = null;
+    this.refreshing = null;
+
+    // An expired access token is answered with 401: refresh the session once and retry the request
+    axios.interceptors.response.use(undefined, async (error) => {
+      const request = error.config;
+      if (error.response?.status !== 401 || !request || request.retried
+          || request.url.includes('/auth/') || !this.refreshToken) {
+        throw error;
+      }
+      request.retried = true;
+      await this.refresh();
+      request.headers['Authorization'] = `Bearer ${this.token}`;
+      return axios(request);
+    });
+  }
+
+  setSession(data) {
+    if (data.token) {
+      this.token = data.token;
+      this.refreshToken = data.refreshToken;
+      this.username = data.username;
+    }
   }
 
   async register(username, loginPassword, masterPin) {
@@ -16,11 +39,7 @@ class AuthService {
       masterPin
     });
     
-    if (response.data.token) {
-      this.token = response.data.token;
-      this.username = response.data.username;
-    }
-    
+    this.setSession(response.data);
     return response.data;
   }
 
@@ -30,16 +49,37 @@ class AuthService {
       loginPassword
     });
     
-    if (response.data.token) {
-      this.token = response.data.token;
-      this.username = response.data.username;
-    }
-    
+    this.setSession(response.data);
     return response.data;
   }
 
+  // Concurrent 401s share one refresh; a refresh token is single-use
+  refresh() {
+    if (!this.refreshing) {
+      this.refreshing = axios.post(`${API_URL}/auth/refresh`, { refreshToken: this.refreshToken })
+        .then((response) => this.setSession(response.data))
+        .catch((error) => {
+          this.clear();
+          throw error;
+        })
+        .finally(() => {
+          this.refreshing = null;
+        });
+    }
+    return this.refreshing;
+  }
+
   logout() {
+    // Revoke the session server-side; its access token stops working at once
+    if (this.refreshToken) {
+      axios.post(`${API_URL}/auth/logout`, { refreshToken: this.refreshToken }).catch(() => {});
+    }
+    this.clear();
+  }
+
+  clear() {
     this.token = null;
+    this.refreshToken = null;
     this.username = null;
   }
 
@@ -11,10 +11,40 @@ class VaultService {
   }
 
   async getAllPasswords() {
-    const response = await axios.get(`${API_URL}/vault/passwords`, {
-      headers: this.getAuthHeaders()
-    });
-    return response.data;
+    // Every page carries the vault version as its ETag, so a 304 on the first page
+    // means the whole list is unchanged and the in-memory copy can be reused
+    const token = authService.getToken();
+    const cached = this.listCache && this.listCache.token === token ? this.listCache : null;
+
+    // The list is paginated; follow X-Next-Cursor until the last page
+    const passwords = [];
+    let cursor = null;
+    let etag = null;
+    do {
+      const headers = this.getAuthHeaders();
+      if (!cursor && cached) {
+        headers['If-None-Match'] = cached.etag;
+      }
+      const response = await axios.get(`${API_URL}/vault/passwords`, {
+        headers,
+        params: cursor ? { cursor } : {},
+        validateStatus: (status) => (status >= 200 && status < 300) || status === 304
+      });
+      if (response.status === 304) {
+        return cached.passwords;
+      }
+      // A write between pages changes the version; such a list is not cached
+      if (etag === null) {
+        etag = response.headers['etag'];
+      } else if (etag !== response.headers['etag']) {
+        etag = undefined;
+      }
+      passwords.push(...response.data);
+      cursor = response.headers['x-next-cursor'];
+    } while (cursor);
+
+    this.listCache = etag ? { token, etag, passwords } : null;
+    return passwords;
   }
 
   async addPassword(appName, appUsername, password, masterPin) {